@@ -0,0 +1,112 @@
+// Precomputed half angle cosines and sines for angles on a regular grid
+// Angles within tolerance of a multiple of 2*pi/steps are snapped to it and served from the table
+// Any other angle falls back to Math.cos and Math.sin
+//
+// The table holds 2*steps entries of each, since the half angle only repeats every 4*pi
+// Lookups cost a multiply, a round and a compare, which is only cheaper than trig
+// when most inputs really are on the grid, so check hitRate before keeping one around
+// hits and misses are plain counters, only approximate if a table is shared between threads
+
+public final class AngleTable {
+	public final int steps;
+	public final float tolerance;
+
+	public long hits = 0;
+	public long misses = 0;
+
+	private final float scale; // steps per radian
+	private final float[] cos, sin;
+
+	// tolerance is in grid steps, 0 only accepts angles that round exactly onto the grid
+	public AngleTable(int steps, float tolerance) {
+		if (steps < 1) {
+			throw new IllegalArgumentException("steps must be at least 1");
+		}
+		this.steps = steps;
+		this.tolerance = tolerance;
+		this.scale = (float) (steps/(2.0*Math.PI));
+		this.cos = new float[2*steps];
+		this.sin = new float[2*steps];
+
+		for (int k = 0; k < 2*steps; k++) {
+			double half = Math.PI*k/steps;
+			cos[k] = (float) Math.cos(half);
+			sin[k] = (float) Math.sin(half);
+		}
+	}
+
+	public AngleTable(int steps) {
+		this(steps, 1e-3f);
+	}
+
+	public float hitRate() {
+		long total = hits + misses;
+		return total == 0 ? 0f : (float) hits/total;
+	}
+	public void resetStatistics() {
+		hits = 0;
+		misses = 0;
+	}
+
+	// the table entry for ang, or -1 if ang is not on the grid
+	private int index(float ang) {
+		float u = ang*scale;
+		if (!(Math.abs(u) < 1e9f)) {
+			misses++;
+			return -1;
+		}
+		int k = Math.round(u);
+		if (Math.abs(u - k) > tolerance) {
+			misses++;
+			return -1;
+		}
+		hits++;
+		return Math.floorMod(k, 2*steps);
+	}
+	private float halfCos(int k, float ang) {
+		return k < 0 ? (float) Math.cos(0.5f*ang) : cos[k];
+	}
+	private float halfSin(int k, float ang) {
+		return k < 0 ? (float) Math.sin(0.5f*ang) : sin[k];
+	}
+
+// conversion from, see the Quaternion methods of the same name
+	public Quaternion setFromAngleAxis(Quaternion output, float ang, float ax, float ay, float az) {
+		int k = index(ang);
+		float len = (float) Math.sqrt(ax*ax + ay*ay + az*az);
+		return output.setFromHalfAngleAxis(halfCos(k, ang), halfSin(k, ang), ax, ay, az, len);
+	}
+	public Quaternion setFromEulerXYZ(Quaternion output, float X, float Y, float Z) {
+		int i = index(X), j = index(Y), k = index(Z);
+		return output.setFromHalfEulerXYZ(halfCos(i, X), halfSin(i, X), halfCos(j, Y), halfSin(j, Y), halfCos(k, Z), halfSin(k, Z));
+	}
+	public Quaternion setFromEulerXZY(Quaternion output, float X, float Z, float Y) {
+		int i = index(X), j = index(Z), k = index(Y);
+		return output.setFromHalfEulerXZY(halfCos(i, X), halfSin(i, X), halfCos(j, Z), halfSin(j, Z), halfCos(k, Y), halfSin(k, Y));
+	}
+	public Quaternion setFromEulerYXZ(Quaternion output, float Y, float X, float Z) {
+		int i = index(Y), j = index(X), k = index(Z);
+		return output.setFromHalfEulerYXZ(halfCos(i, Y), halfSin(i, Y), halfCos(j, X), halfSin(j, X), halfCos(k, Z), halfSin(k, Z));
+	}
+	public Quaternion setFromEulerYZX(Quaternion output, float Y, float Z, float X) {
+		int i = index(Y), j = index(Z), k = index(X);
+		return output.setFromHalfEulerYZX(halfCos(i, Y), halfSin(i, Y), halfCos(j, Z), halfSin(j, Z), halfCos(k, X), halfSin(k, X));
+	}
+	public Quaternion setFromEulerZXY(Quaternion output, float Z, float X, float Y) {
+		int i = index(Z), j = index(X), k = index(Y);
+		return output.setFromHalfEulerZXY(halfCos(i, Z), halfSin(i, Z), halfCos(j, X), halfSin(j, X), halfCos(k, Y), halfSin(k, Y));
+	}
+	public Quaternion setFromEulerZYX(Quaternion output, float Z, float Y, float X) {
+		int i = index(Z), j = index(Y), k = index(X);
+		return output.setFromHalfEulerZYX(halfCos(i, Z), halfSin(i, Z), halfCos(j, Y), halfSin(j, Y), halfCos(k, X), halfSin(k, X));
+	}
+
+	//	static shorthand equivalents
+	public Quaternion fromAngleAxis(float ang, float ax, float ay, float az) {return this.setFromAngleAxis(new Quaternion(), ang, ax, ay, az);}
+	public Quaternion fromEulerXYZ(float X, float Y, float Z) {return this.setFromEulerXYZ(new Quaternion(), X, Y, Z);}
+	public Quaternion fromEulerXZY(float X, float Z, float Y) {return this.setFromEulerXZY(new Quaternion(), X, Z, Y);}
+	public Quaternion fromEulerYXZ(float Y, float X, float Z) {return this.setFromEulerYXZ(new Quaternion(), Y, X, Z);}
+	public Quaternion fromEulerYZX(float Y, float Z, float X) {return this.setFromEulerYZX(new Quaternion(), Y, Z, X);}
+	public Quaternion fromEulerZXY(float Z, float X, float Y) {return this.setFromEulerZXY(new Quaternion(), Z, X, Y);}
+	public Quaternion fromEulerZYX(float Z, float Y, float X) {return this.setFromEulerZYX(new Quaternion(), Z, Y, X);}
+}
@@ -0,0 +1,73 @@
+// Where AngleTable pays off: construction time against direct trig
+// as the share of inputs that lie on the table's grid goes from none to all
+// Usage: java AngleTableBenchmark [steps, default 360]
+//
+// Off grid inputs cost the lookup on top of the trig, so the table only wins
+// once enough inputs hit, the crossover is where the table/direct ratio passes 1
+
+import java.util.SplittableRandom;
+
+public final class AngleTableBenchmark {
+	private static final int INPUTS = 4096;
+
+	public static void main(String[] args) {
+		int steps = args.length > 0 ? Integer.parseInt(args[0]) : 360;
+		AngleTable table = new AngleTable(steps);
+		Quaternion output = new Quaternion();
+
+		System.out.printf("%-12s %8s %14s %14s %8s %8s%n", "method", "on grid", "direct ns", "table ns", "ratio", "hits");
+		double[] shares = {0.0, 0.25, 0.5, 0.75, 0.9, 1.0};
+		for (double share : shares) {
+			float[] angles = angles(new SplittableRandom(0x5eedL), steps, share);
+
+			double direct = Benchmark.nanosPerOp(() -> {
+				float sum = 0f;
+				for (int i = 0; i < INPUTS; i++) {
+					sum += output.setFromAngleAxis(angles[i], 0.6f, 0f, 0.8f).w;
+				}
+				return sum;
+			}, INPUTS);
+			table.resetStatistics();
+			double lookup = Benchmark.nanosPerOp(() -> {
+				float sum = 0f;
+				for (int i = 0; i < INPUTS; i++) {
+					sum += table.setFromAngleAxis(output, angles[i], 0.6f, 0f, 0.8f).w;
+				}
+				return sum;
+			}, INPUTS);
+			report("angleAxis", share, direct, lookup, table.hitRate());
+
+			direct = Benchmark.nanosPerOp(() -> {
+				float sum = 0f;
+				for (int i = 0; i < INPUTS - 2; i++) {
+					sum += output.setFromEulerXYZ(angles[i], angles[i + 1], angles[i + 2]).w;
+				}
+				return sum;
+			}, INPUTS - 2);
+			table.resetStatistics();
+			lookup = Benchmark.nanosPerOp(() -> {
+				float sum = 0f;
+				for (int i = 0; i < INPUTS - 2; i++) {
+					sum += table.setFromEulerXYZ(output, angles[i], angles[i + 1], angles[i + 2]).w;
+				}
+				return sum;
+			}, INPUTS - 2);
+			report("eulerXYZ", share, direct, lookup, table.hitRate());
+		}
+	}
+
+	// angles in [-2pi, 2pi), the given share of them multiples of 2pi/steps, in random order
+	private static float[] angles(SplittableRandom random, int steps, double share) {
+		float[] angles = new float[INPUTS];
+		for (int i = 0; i < INPUTS; i++) {
+			angles[i] = random.nextDouble() < share
+				? (float) (2.0*Math.PI*random.nextInt(-steps, steps)/steps)
+				: (float) random.nextDouble(-2.0*Math.PI, 2.0*Math.PI);
+		}
+		return angles;
+	}
+
+	private static void report(String name, double share, double direct, double table, float hitRate) {
+		System.out.printf("%-12s %7.0f%% %14.2f %14.2f %8.2f %7.0f%%%n", name, 100*share, direct, table, table/direct, 100*hitRate);
+	}
+}
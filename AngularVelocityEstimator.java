@@ -0,0 +1,120 @@
+// Angular velocity and acceleration of a sampled orientation track
+// Samples are fed in chunks of any size, the estimator keeps the window between chunks
+//
+// Each estimate fits a quadratic (Savitzky-Golay) to the rotation vectors from the window's
+// center sample to every sample within halfWidth of it, and differentiates the fit
+// A halfWidth of 1 is the ordinary central difference, wider windows smooth out noise
+// Estimates are in the space of the center sample, which is where gyroscopes measure
+// and they trail the input by halfWidth samples
+
+public final class AngularVelocityEstimator {
+	public final int halfWidth;
+	public final float dt;
+
+	// the derivatives of the fit at the center, per sample of the window
+	private final float[] velocityWeights;
+	private final float[] accelerationWeights;
+
+	// the last 2*halfWidth + 1 samples, as a ring
+	private final QuaternionArray window;
+	private int newest = -1;
+	private int filled = 0;
+
+	private final Quaternion center = new Quaternion();
+	private final Quaternion sample = new Quaternion();
+	private final Vector3f vector = new Vector3f();
+
+	public AngularVelocityEstimator(int halfWidth, float dt) {
+		if (halfWidth < 1) {
+			throw new IllegalArgumentException("halfWidth must be at least 1");
+		}
+		this.halfWidth = halfWidth;
+		this.dt = dt;
+
+		int size = 2*halfWidth + 1;
+		this.window = new QuaternionArray(size);
+		this.velocityWeights = new float[size];
+		this.accelerationWeights = new float[size];
+
+		// least squares weights for the first and second derivative at j = 0
+		float sumSq = 0f;
+		for (int j = -halfWidth; j <= halfWidth; j++) {
+			sumSq += j*j;
+		}
+		float meanSq = sumSq/size;
+		float sumDevSq = 0f;
+		for (int j = -halfWidth; j <= halfWidth; j++) {
+			sumDevSq += (j*j - meanSq)*(j*j - meanSq);
+		}
+		for (int j = -halfWidth; j <= halfWidth; j++) {
+			velocityWeights[j + halfWidth] = j/(sumSq*dt);
+			accelerationWeights[j + halfWidth] = 2f*(j*j - meanSq)/(sumDevSq*dt*dt);
+		}
+	}
+
+	public static AngularVelocityEstimator centralDifference(float dt) {
+		return new AngularVelocityEstimator(1, dt);
+	}
+
+	// forgets every sample, for starting a new track
+	public void reset() {
+		newest = -1;
+		filled = 0;
+	}
+
+	// feeds samples [offset, offset + count) and writes estimates from outputOffset onward
+	// accelerationOutput may be null
+	// returns the number of estimates written, which is count once the window has filled
+	public int push(
+		QuaternionArray samples, int offset, int count,
+		Vector3fArray velocityOutput, Vector3fArray accelerationOutput, int outputOffset
+	) {
+		int size = window.length;
+		int written = 0;
+		for (int i = offset; i < offset + count; i++) {
+			newest = newest + 1 == size ? 0 : newest + 1;
+			window.set(newest, samples.w[i], samples.x[i], samples.y[i], samples.z[i]);
+			if (filled < size && ++filled < size) {
+				continue;
+			}
+
+			window.get((newest + size - halfWidth)%size, center);
+			float vx = 0f, vy = 0f, vz = 0f;
+			float ax = 0f, ay = 0f, az = 0f;
+			for (int j = -halfWidth; j <= halfWidth; j++) {
+				if (j == 0) {
+					continue; // the center relative to itself is no rotation
+				}
+				window.get((newest + size - halfWidth + j)%size, sample);
+
+				// q and -q are the same rotation, take the short way around
+				sample.invMul(center, sample);
+				if (sample.w < 0f) {
+					sample.negThis();
+				}
+				sample.toRotationVector(vector);
+
+				float cv = velocityWeights[j + halfWidth];
+				float ca = accelerationWeights[j + halfWidth];
+				vx += cv*vector.x;
+				vy += cv*vector.y;
+				vz += cv*vector.z;
+				ax += ca*vector.x;
+				ay += ca*vector.y;
+				az += ca*vector.z;
+			}
+
+			int o = outputOffset + written;
+			velocityOutput.set(o, vx, vy, vz);
+			if (accelerationOutput != null) {
+				accelerationOutput.set(o, ax, ay, az);
+			}
+			written++;
+		}
+
+		return written;
+	}
+
+	//	whole array shorthand
+	public int push(QuaternionArray samples, Vector3fArray velocityOutput, Vector3fArray accelerationOutput) {return this.push(samples, 0, samples.length, velocityOutput, accelerationOutput, 0);}
+}
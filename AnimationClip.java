@@ -0,0 +1,38 @@
+// Rotation keyframes for a set of tracks, stored packed for sampling with ClipSampler
+// Track t owns keys keyStart[t] to keyStart[t + 1] - 1, which must have increasing times
+// Key k has its time at times[k] and its rotation at rotations[4*k] to rotations[4*k + 3] as w, x, y, z
+
+public final class AnimationClip {
+	public final int[] keyStart;
+	public final float[] times;
+	public final float[] rotations;
+	public final int tracks;
+
+	public AnimationClip(int[] keyStart, float[] times, float[] rotations) {
+		int keys = keyStart[keyStart.length - 1];
+		if (times.length < keys || rotations.length < 4*keys) {
+			throw new IllegalArgumentException("tracks reference more keys than given");
+		}
+		for (int t = 0; t + 1 < keyStart.length; t++) {
+			if (keyStart[t + 1] <= keyStart[t]) {
+				throw new IllegalArgumentException("track " + t + " has no keys");
+			}
+			for (int k = keyStart[t] + 1; k < keyStart[t + 1]; k++) {
+				if (!(times[k] > times[k - 1])) {
+					throw new IllegalArgumentException("track " + t + " has key times out of order");
+				}
+			}
+		}
+		this.keyStart = keyStart;
+		this.times = times;
+		this.rotations = rotations;
+		this.tracks = keyStart.length - 1;
+	}
+
+	public float startTime(int track) {
+		return times[keyStart[track]];
+	}
+	public float endTime(int track) {
+		return times[keyStart[track + 1] - 1];
+	}
+}
@@ -0,0 +1,43 @@
+// Timing loop shared by the benchmark programs
+// A body first runs for a second of warm-up so the JIT has compiled it,
+// then it is timed over several rounds and the fastest round is reported,
+// as the one least disturbed by the rest of the machine
+// Bodies return a value that is folded into sink, so the JIT cannot drop their work
+
+final class Benchmark {
+	private Benchmark() {}
+
+	interface Body {
+		double run();
+	}
+
+	static volatile double sink;
+
+	private static final long WARM_UP_NANOS = 1000000000L;
+	private static final int ROUNDS = 10;
+
+	// nanoseconds per operation, for a body that does ops operations per run
+	static double nanosPerOp(Body body, long ops) {
+		double result = 0.0;
+		long runs = 0;
+		long start = System.nanoTime();
+		while (System.nanoTime() - start < WARM_UP_NANOS) {
+			result += body.run();
+			runs++;
+		}
+
+		// rounds of about a tenth of the warm-up each
+		long runsPerRound = Math.max(1, runs/ROUNDS);
+		long best = Long.MAX_VALUE;
+		for (int round = 0; round < ROUNDS; round++) {
+			long t = System.nanoTime();
+			for (long r = 0; r < runsPerRound; r++) {
+				result += body.run();
+			}
+			best = Math.min(best, System.nanoTime() - t);
+		}
+		sink += result;
+
+		return (double) best/(runsPerRound*ops);
+	}
+}
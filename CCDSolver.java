@@ -0,0 +1,185 @@
+// Cyclic coordinate descent inverse kinematics for many joint chains at once
+// Each step is Quaternion.align: the rotation nearest the joint's current one
+// that points the end effector at the target
+//
+// Chain c owns joints chainStart[c] to chainStart[c + 1] - 1, root first
+// Its last joint is the end effector, whose rotation is not solved for
+// rotations holds each joint's rotation relative to its parent
+// offsets holds each joint's position in its parent's frame
+// The root has no parent, so its offset and the targets share the chain's own space
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+public final class CCDSolver {
+	public final QuaternionArray rotations;
+	public final Vector3fArray offsets;
+	public final int[] chainStart;
+	public final int chains;
+
+	// iterations used by each chain in the last solve, 0 for chains skipped for lack of time
+	public final int[] iterations;
+
+	// stop once the end effector is this close to the target
+	public float tolerance = 1e-3f;
+	// full sweeps allowed per chain per solve
+	public int maxIterations = 16;
+	// time allowed for a whole solve
+	// once it runs out, chains in progress finish their current sweep and the rest are skipped,
+	// keeping their pose, so a solve overruns by at most one sweep per thread
+	// the next solve starts from the first skipped chain, so every chain gets its turn
+	public long timeBudgetNanos = Long.MAX_VALUE;
+
+	// forward kinematics, one entry per joint
+	private final QuaternionArray worldRotations;
+	private final Vector3fArray worldPositions;
+
+	// the chain the next solve starts from
+	private int firstChain = 0;
+
+	// per thread scratch, so solving allocates nothing
+	private static final class Scratch {
+		final Quaternion world = new Quaternion();
+		final Quaternion parent = new Quaternion();
+		final Vector3f a = new Vector3f();
+	}
+	private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+	public CCDSolver(QuaternionArray rotations, Vector3fArray offsets, int[] chainStart) {
+		int joints = chainStart[chainStart.length - 1];
+		if (rotations.length < joints || offsets.length < joints) {
+			throw new IllegalArgumentException("chains reference more joints than given");
+		}
+		this.rotations = rotations;
+		this.offsets = offsets;
+		this.chainStart = chainStart;
+		this.chains = chainStart.length - 1;
+		this.iterations = new int[chains];
+		this.worldRotations = new QuaternionArray(joints);
+		this.worldPositions = new Vector3fArray(joints);
+	}
+
+	// returns the number of chains that reached their target, skipped chains count as not reached
+	public int solve(Vector3fArray targets) {
+		long deadline = deadline();
+		int start = firstChain;
+		Scratch s = scratch.get();
+		int solved = 0;
+		for (int k = 0; k < chains; k++) {
+			int c = (start + k)%chains;
+			if (System.nanoTime() >= deadline) {
+				// out of time, skip this chain and every one after it
+				for (int l = k; l < chains; l++) {
+					iterations[(start + l)%chains] = 0;
+				}
+				firstChain = c;
+				return solved;
+			}
+			if (solveChain(c, targets.x[c], targets.y[c], targets.z[c], deadline, s)) {
+				solved++;
+			}
+		}
+		return solved;
+	}
+	public int solveParallel(Vector3fArray targets) {
+		long deadline = deadline();
+		int start = firstChain;
+		AtomicInteger firstSkipped = new AtomicInteger(chains);
+		int solved = (int) IntStream.range(0, chains).parallel()
+			.filter(k -> {
+				int c = (start + k)%chains;
+				if (System.nanoTime() >= deadline) {
+					iterations[c] = 0;
+					firstSkipped.accumulateAndGet(k, Math::min);
+					return false;
+				}
+				return solveChain(c, targets.x[c], targets.y[c], targets.z[c], deadline, scratch.get());
+			})
+			.count();
+		if (firstSkipped.get() < chains) {
+			firstChain = (start + firstSkipped.get())%chains;
+		}
+		return solved;
+	}
+
+	private long deadline() {
+		long now = System.nanoTime();
+		return timeBudgetNanos > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + timeBudgetNanos;
+	}
+
+	private boolean solveChain(int c, float tx, float ty, float tz, long deadline, Scratch s) {
+		int first = chainStart[c];
+		int last = chainStart[c + 1] - 1;
+		float[] px = worldPositions.x, py = worldPositions.y, pz = worldPositions.z;
+		float tolSq = tolerance*tolerance;
+
+		Quaternion world = s.world;
+		Quaternion parent = s.parent;
+		Vector3f a = s.a;
+
+		float errSq = forward(first, last, tx, ty, tz, world, parent, a);
+		int it = 0;
+		while (errSq > tolSq && it < maxIterations && (it == 0 || System.nanoTime() < deadline)) {
+			float ex = px[last], ey = py[last], ez = pz[last];
+
+			// sweep from the end effector back to the root
+			for (int j = last - 1; j >= first; j--) {
+				float bx = tx - px[j], by = ty - py[j], bz = tz - pz[j];
+				float ax = ex - px[j], ay = ey - py[j], az = ez - pz[j];
+				if (ax*ax + ay*ay + az*az < 1e-12f || bx*bx + by*by + bz*bz < 1e-12f) {
+					continue;
+				}
+
+				// the end effector in the joint's own frame
+				worldRotations.get(j, world);
+				parent.conj(world).sandwich(ax, ay, az, a);
+
+				// rotate the joint so the end effector points at the target
+				world.alignUnitizeThis(a.x, a.y, a.z, bx, by, bz);
+				worldRotations.set(j, world);
+				if (j == first) {
+					rotations.set(j, world);
+				} else {
+					rotations.set(j, parent.invMul(worldRotations.get(j - 1, parent), world));
+				}
+
+				world.sandwich(a.x, a.y, a.z, a);
+				ex = px[j] + a.x;
+				ey = py[j] + a.y;
+				ez = pz[j] + a.z;
+			}
+
+			errSq = forward(first, last, tx, ty, tz, world, parent, a);
+			it++;
+		}
+
+		iterations[c] = it;
+		return errSq <= tolSq;
+	}
+
+	// recomputes world rotations and positions of one chain
+	// returns the squared distance from the end effector to the target
+	private float forward(
+		int first, int last, float tx, float ty, float tz,
+		Quaternion world, Quaternion parent, Vector3f v
+	) {
+		float[] px = worldPositions.x, py = worldPositions.y, pz = worldPositions.z;
+		parent.loadIdentity();
+		float x = 0f, y = 0f, z = 0f;
+		for (int j = first; j <= last; j++) {
+			parent.sandwich(offsets.x[j], offsets.y[j], offsets.z[j], v);
+			x += v.x;
+			y += v.y;
+			z += v.z;
+			px[j] = x;
+			py[j] = y;
+			pz[j] = z;
+
+			parent.mul(parent, rotations.get(j, world));
+			worldRotations.set(j, parent);
+		}
+
+		float dx = tx - x, dy = ty - y, dz = tz - z;
+		return dx*dx + dy*dy + dz*dz;
+	}
+}
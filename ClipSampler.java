@@ -0,0 +1,125 @@
+// Samples every track of an AnimationClip into a QuaternionArray pose
+// Each track remembers the key pair it last used, so playback with increasing times
+// finds its keys in constant time, while seeking backward or far forward falls back to a binary search
+// Use one sampler per playing instance of a clip, a sampler is not safe to share between threads
+// Times before a track's first key or after its last hold that key
+
+public final class ClipSampler {
+	public final AnimationClip clip;
+
+	// for each track, the last key at or before the previous sample time
+	private final int[] cursors;
+	private final QuaternionArray scratch;
+
+	// forward steps tried before searching
+	private static final int SCAN = 4;
+
+	public ClipSampler(AnimationClip clip) {
+		this.clip = clip;
+		this.cursors = new int[clip.tracks];
+		this.scratch = new QuaternionArray(clip.tracks);
+
+		for (int t = 0; t < clip.tracks; t++) {
+			cursors[t] = clip.keyStart[t];
+		}
+	}
+
+	// writes track t to pose[poseOffset + t]
+	public QuaternionArray sample(float time, QuaternionArray pose, int poseOffset) {
+		int[] keyStart = clip.keyStart;
+		float[] times = clip.times;
+		float[] rotations = clip.rotations;
+
+		for (int t = 0; t < clip.tracks; t++) {
+			int first = keyStart[t];
+			int last = keyStart[t + 1] - 1;
+			int k = find(t, first, last, time);
+
+			int a = 4*k;
+			if (k == last || time <= times[k]) {
+				pose.set(poseOffset + t, rotations[a], rotations[a + 1], rotations[a + 2], rotations[a + 3]);
+				continue;
+			}
+
+			int b = a + 4;
+			float u = (time - times[k])/(times[k + 1] - times[k]);
+			float Aw = rotations[a], Ax = rotations[a + 1], Ay = rotations[a + 2], Az = rotations[a + 3];
+			float Bw = rotations[b], Bx = rotations[b + 1], By = rotations[b + 2], Bz = rotations[b + 3];
+			if (Aw*Bw + Ax*Bx + Ay*By + Az*Bz < 0) {
+				Aw = -Aw;
+				Ax = -Ax;
+				Ay = -Ay;
+				Az = -Az;
+			}
+			pose.slerp(poseOffset + t, Aw, Ax, Ay, Az, Bw, Bx, By, Bz, u);
+		}
+
+		return pose;
+	}
+
+	// samples this clip and adds it to accumulator with the given weight
+	// accumulator must start at zero, clear it first, a new QuaternionArray holds identities instead
+	// after adding every clip, accumulator.unit(accumulator) gives the blended pose
+	// each sample is flipped to the same side as what has been accumulated so far
+	public QuaternionArray sampleAdd(float time, float weight, QuaternionArray accumulator, int offset) {
+		sample(time, scratch, 0);
+		for (int t = 0; t < clip.tracks; t++) {
+			int i = offset + t;
+			float Sw = scratch.w[t], Sx = scratch.x[t], Sy = scratch.y[t], Sz = scratch.z[t];
+			float dot = accumulator.w[i]*Sw + accumulator.x[i]*Sx + accumulator.y[i]*Sy + accumulator.z[i]*Sz;
+			float s = dot < 0f ? -weight : weight;
+			accumulator.w[i] += s*Sw;
+			accumulator.x[i] += s*Sx;
+			accumulator.y[i] += s*Sy;
+			accumulator.z[i] += s*Sz;
+		}
+
+		return accumulator;
+	}
+
+	// forgets the cursors, e.g. before playing from the start again
+	public void reset() {
+		for (int t = 0; t < clip.tracks; t++) {
+			cursors[t] = clip.keyStart[t];
+		}
+	}
+
+	private int find(int t, int first, int last, float time) {
+		float[] times = clip.times;
+		int k = cursors[t];
+
+		if (time >= times[k]) {
+			// playing forward, usually the same pair or the next one
+			int scanEnd = Math.min(last, k + SCAN);
+			while (k < scanEnd && times[k + 1] <= time) {
+				k++;
+			}
+			if (k == scanEnd && k < last && times[k + 1] <= time) {
+				k = search(k + 1, last, time);
+			}
+		} else if (k > first) {
+			k = search(first, k - 1, time);
+		}
+
+		cursors[t] = k;
+		return k;
+	}
+
+	// the last key in [lo, hi] at or before time, or lo if there is none
+	private int search(int lo, int hi, float time) {
+		float[] times = clip.times;
+		while (lo < hi) {
+			int mid = (lo + hi + 1) >>> 1;
+			if (times[mid] <= time) {
+				lo = mid;
+			} else {
+				hi = mid - 1;
+			}
+		}
+		return lo;
+	}
+
+	//	whole array shorthand
+	public QuaternionArray sample(float time, QuaternionArray pose) {return this.sample(time, pose, 0);}
+	public QuaternionArray sampleAdd(float time, float weight, QuaternionArray accumulator) {return this.sampleAdd(time, weight, accumulator, 0);}
+}
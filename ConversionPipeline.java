@@ -0,0 +1,314 @@
+// Streams many small orientation conversion jobs through three stages
+//	read: each job's Reader runs as its own task on the io executor
+//	convert: a fixed number of threads convert whole jobs with the QuaternionPacked kernels
+//	write: a fixed number of tasks on the io executor hand results to each job's Writer
+// Stages are joined by bounded queues, so a slow stage blocks the one feeding it
+// and submit blocks once maxJobs jobs are between the start of their read and the end of their write
+// so however many jobs are submitted, at most maxJobs of them are held in memory
+//
+// Reading and writing mostly wait on io, so the io executor should be cheap to block,
+// ideally one virtual thread per task (Executors.newVirtualThreadPerTaskExecutor() on Java 21+)
+// Conversion is pure computation and gets ordinary threads, typically one per core
+// The writers hold on to their io threads until close, so a bounded io pool
+// needs more threads than there are writers or no job will ever be read
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class ConversionPipeline {
+	// how records are laid out, packed one after another in a float[]
+	public enum Format {
+		QUATERNION(4), // w, x, y, z
+		MATRIX(9), // row major
+		ROTATION_VECTOR(3),
+		EULER_XYZ(3),
+		EULER_XZY(3),
+		EULER_YXZ(3),
+		EULER_YZX(3),
+		EULER_ZXY(3),
+		EULER_ZYX(3);
+
+		public final int size;
+
+		Format(int size) {
+			this.size = size;
+		}
+
+		void toQuaternions(float[] input, float[] output, int count) {
+			switch (this) {
+				case QUATERNION: System.arraycopy(input, 0, output, 0, 4*count); break;
+				case MATRIX: QuaternionPacked.setFromRotationMatrix(output, 0, 4, input, 0, 9, count); break;
+				case ROTATION_VECTOR: QuaternionPacked.setFromRotationVector(output, 0, 4, input, 0, 3, count); break;
+				case EULER_XYZ: QuaternionPacked.setFromEulerXYZ(output, 0, 4, input, 0, 3, count); break;
+				case EULER_XZY: QuaternionPacked.setFromEulerXZY(output, 0, 4, input, 0, 3, count); break;
+				case EULER_YXZ: QuaternionPacked.setFromEulerYXZ(output, 0, 4, input, 0, 3, count); break;
+				case EULER_YZX: QuaternionPacked.setFromEulerYZX(output, 0, 4, input, 0, 3, count); break;
+				case EULER_ZXY: QuaternionPacked.setFromEulerZXY(output, 0, 4, input, 0, 3, count); break;
+				case EULER_ZYX: QuaternionPacked.setFromEulerZYX(output, 0, 4, input, 0, 3, count); break;
+			}
+		}
+		void fromQuaternions(float[] input, float[] output, int count) {
+			switch (this) {
+				case QUATERNION: System.arraycopy(input, 0, output, 0, 4*count); break;
+				case MATRIX: QuaternionPacked.toRotationMatrix(output, 0, 9, input, 0, 4, count); break;
+				case ROTATION_VECTOR: QuaternionPacked.toRotationVector(output, 0, 3, input, 0, 4, count); break;
+				case EULER_XYZ: QuaternionPacked.toEulerXYZ(output, 0, 3, input, 0, 4, count); break;
+				case EULER_XZY: QuaternionPacked.toEulerXZY(output, 0, 3, input, 0, 4, count); break;
+				case EULER_YXZ: QuaternionPacked.toEulerYXZ(output, 0, 3, input, 0, 4, count); break;
+				case EULER_YZX: QuaternionPacked.toEulerYZX(output, 0, 3, input, 0, 4, count); break;
+				case EULER_ZXY: QuaternionPacked.toEulerZXY(output, 0, 3, input, 0, 4, count); break;
+				case EULER_ZYX: QuaternionPacked.toEulerZYX(output, 0, 3, input, 0, 4, count); break;
+			}
+		}
+	}
+
+	public interface Reader {
+		// all of a job's records, in its input format
+		float[] read() throws IOException;
+	}
+	public interface Writer {
+		// all of a job's records, in its output format
+		void write(float[] records) throws IOException;
+	}
+
+	// counters of one stage, busy time excludes time spent waiting on queues
+	public static final class Stage {
+		private final LongAdder jobs = new LongAdder();
+		private final LongAdder records = new LongAdder();
+		private final LongAdder busyNanos = new LongAdder();
+
+		public long jobs() {return jobs.sum();}
+		public long records() {return records.sum();}
+		public long busyNanos() {return busyNanos.sum();}
+		// records per second of busy time, summed over every thread of the stage
+		public double recordsPerSecond() {
+			long busy = busyNanos.sum();
+			return busy == 0 ? 0.0 : 1e9*records.sum()/busy;
+		}
+
+		void add(long records, long nanos) {
+			this.jobs.increment();
+			this.records.add(records);
+			this.busyNanos.add(nanos);
+		}
+	}
+
+	// a queue that remembers the most it has ever held
+	public static final class Queue {
+		private final BlockingQueue<Job> queue;
+		private final AtomicInteger peak = new AtomicInteger();
+
+		Queue(int capacity) {
+			this.queue = new ArrayBlockingQueue<>(capacity);
+		}
+
+		public int depth() {return queue.size();}
+		public int peakDepth() {return peak.get();}
+		public int capacity() {return queue.size() + queue.remainingCapacity();}
+
+		void put(Job job) throws InterruptedException {
+			queue.put(job);
+			peak.accumulateAndGet(queue.size(), Math::max);
+		}
+		Job take() throws InterruptedException {
+			return queue.take();
+		}
+	}
+
+	private static final class Job {
+		final Reader reader;
+		final Format from, to;
+		final Writer writer;
+		final CompletableFuture<Void> done = new CompletableFuture<>();
+		float[] records;
+
+		Job(Reader reader, Format from, Format to, Writer writer) {
+			this.reader = reader;
+			this.from = from;
+			this.to = to;
+			this.writer = writer;
+		}
+	}
+
+	// tells a stage's thread to stop
+	private static final Job STOP = new Job(null, null, null, null);
+
+	public final Stage reading = new Stage();
+	public final Stage converting = new Stage();
+	public final Stage writing = new Stage();
+	public final Queue convertQueue;
+	public final Queue writeQueue;
+
+	// enough jobs to fill both queues and keep every converter and writer busy
+	public final int maxJobs;
+
+	private final ExecutorService io;
+	private final Thread[] converters;
+	private final int writers;
+	// a permit for every job in flight, close takes all of them to wait for the rest
+	private final Semaphore admission;
+	private volatile boolean closed = false;
+	// set once close has taken every permit, so a second close has nothing left to do
+	private boolean stopped = false;
+
+	public ConversionPipeline(ExecutorService io, int converters, int writers, int queueCapacity) {
+		this.io = io;
+		this.writers = writers;
+		this.convertQueue = new Queue(queueCapacity);
+		this.writeQueue = new Queue(queueCapacity);
+		this.maxJobs = converters + writers + 2*queueCapacity;
+		this.admission = new Semaphore(maxJobs);
+
+		this.converters = new Thread[converters];
+		for (int i = 0; i < converters; i++) {
+			this.converters[i] = new Thread(this::convertLoop, "conversion-" + i);
+			this.converters[i].setDaemon(true);
+			this.converters[i].start();
+		}
+		for (int i = 0; i < writers; i++) {
+			io.execute(this::writeLoop);
+		}
+	}
+
+	// starts a job, blocking while maxJobs jobs are already in flight
+	// the returned future completes once its Writer has returned
+	// or exceptionally if reading, converting or writing failed
+	// Its permit is only released after the future has completed, and dependents
+	// added without an async method run in between, on a pipeline thread,
+	// so they must not call submit or they can wait for their own permit forever
+	public CompletableFuture<Void> submit(Reader reader, Format from, Format to, Writer writer) throws InterruptedException {
+		admission.acquire();
+		// checked while holding a permit, so close either waits for this job or it is refused
+		if (closed) {
+			admission.release();
+			throw new IllegalStateException("pipeline is closed");
+		}
+		Job job = new Job(reader, from, to, writer);
+		try {
+			io.execute(() -> read(job));
+		} catch (RejectedExecutionException e) {
+			admission.release();
+			throw e;
+		}
+		return job.done;
+	}
+
+	public int jobsInFlight() {
+		return maxJobs - admission.availablePermits();
+	}
+
+	// waits for every submitted job to finish, then stops the stages
+	// the io executor is left running, it belongs to the caller
+	// calling it again, even concurrently, waits for the first call and returns
+	public synchronized void close() throws InterruptedException {
+		if (stopped) {
+			return;
+		}
+		closed = true;
+		admission.acquire(maxJobs);
+		stopped = true;
+		for (int i = 0; i < converters.length; i++) {
+			convertQueue.put(STOP);
+		}
+		for (int i = 0; i < writers; i++) {
+			writeQueue.put(STOP);
+		}
+		for (Thread converter : converters) {
+			converter.join();
+		}
+		// lets any submit still blocked on a permit through, to be refused
+		admission.release(maxJobs);
+	}
+
+	private void read(Job job) {
+		try {
+			long start = System.nanoTime();
+			float[] records = job.reader.read();
+			if (records.length%job.from.size != 0) {
+				throw new IOException("record data is not a whole number of " + job.from + " records");
+			}
+			job.records = records;
+			reading.add(records.length/job.from.size, System.nanoTime() - start);
+
+			convertQueue.put(job);
+		} catch (Throwable e) {
+			fail(job, e);
+		}
+	}
+
+	private void convertLoop() {
+		while (true) {
+			Job job;
+			try {
+				job = convertQueue.take();
+			} catch (InterruptedException e) {
+				return;
+			}
+			if (job == STOP) {
+				return;
+			}
+
+			try {
+				long start = System.nanoTime();
+				int count = job.records.length/job.from.size;
+				float[] output = new float[count*job.to.size];
+				// every conversion goes through packed quaternions
+				// unless one side already is quaternions
+				if (job.from == Format.QUATERNION) {
+					job.to.fromQuaternions(job.records, output, count);
+				} else if (job.to == Format.QUATERNION) {
+					job.from.toQuaternions(job.records, output, count);
+				} else {
+					float[] quaternions = new float[4*count];
+					job.from.toQuaternions(job.records, quaternions, count);
+					job.to.fromQuaternions(quaternions, output, count);
+				}
+				job.records = output;
+				converting.add(count, System.nanoTime() - start);
+
+				writeQueue.put(job);
+			} catch (Throwable e) {
+				fail(job, e);
+			}
+		}
+	}
+
+	private void writeLoop() {
+		while (true) {
+			Job job;
+			try {
+				job = writeQueue.take();
+			} catch (InterruptedException e) {
+				return;
+			}
+			if (job == STOP) {
+				return;
+			}
+
+			try {
+				long start = System.nanoTime();
+				job.writer.write(job.records);
+				writing.add(job.records.length/job.to.size, System.nanoTime() - start);
+
+				job.records = null;
+				job.done.complete(null);
+				admission.release();
+			} catch (Throwable e) {
+				fail(job, e);
+			}
+		}
+	}
+
+	private void fail(Job job, Throwable e) {
+		job.records = null;
+		job.done.completeExceptionally(e);
+		admission.release();
+	}
+}
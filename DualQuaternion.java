@@ -0,0 +1,244 @@
+// Rigid transforms (rotation followed by translation) as real + dual*e, e*e = 0
+// Most operations assume a rigid transform, meaning dot(real, dual) = 0,
+// which is what setFromRotationTranslation and unit produce
+
+public final class DualQuaternion {
+	public final Quaternion real, dual;
+
+	// constructors
+	public DualQuaternion() {
+		real = new Quaternion();
+		dual = new Quaternion(0f, 0f, 0f, 0f);
+	}
+
+	public DualQuaternion(Quaternion real, Quaternion dual) {
+		this.real = new Quaternion(real);
+		this.dual = new Quaternion(dual);
+	}
+
+	public DualQuaternion(DualQuaternion D) {
+		this.real = new Quaternion(D.real);
+		this.dual = new Quaternion(D.dual);
+	}
+
+	public DualQuaternion set(
+		float Rw, float Rx, float Ry, float Rz,
+		float Dw, float Dx, float Dy, float Dz
+	) {
+		real.set(Rw, Rx, Ry, Rz);
+		dual.set(Dw, Dx, Dy, Dz);
+
+		return this;
+	}
+	public DualQuaternion set(DualQuaternion D) {
+		real.set(D.real.w, D.real.x, D.real.y, D.real.z);
+		dual.set(D.dual.w, D.dual.x, D.dual.y, D.dual.z);
+
+		return this;
+	}
+
+	//Basic operations
+	public DualQuaternion unit(DualQuaternion A) {
+		Quaternion r = A.real, d = A.dual;
+		float inv = 1f/(float) Math.sqrt(r.w*r.w + r.x*r.x + r.y*r.y + r.z*r.z);
+		// remove the part of dual that is parallel to real, which is not rigid
+		float par = inv*inv*r.dot(d);
+
+		float Dw = inv*(d.w - par*r.w);
+		float Dx = inv*(d.x - par*r.x);
+		float Dy = inv*(d.y - par*r.y);
+		float Dz = inv*(d.z - par*r.z);
+
+		real.mul(r, inv);
+		dual.set(Dw, Dx, Dy, Dz);
+
+		return this;
+	}
+	public DualQuaternion neg(DualQuaternion A) {
+		real.neg(A.real);
+		dual.neg(A.dual);
+
+		return this;
+	}
+	public DualQuaternion conj(DualQuaternion A) {
+		real.conj(A.real);
+		dual.conj(A.dual);
+
+		return this;
+	}
+	public DualQuaternion inv(DualQuaternion A) {
+		// (r, d)^-1 = (r^-1, -r^-1*d*r^-1), which is conj(r, d)/lenSq(r) for rigid transforms
+		float inv = 1f/A.real.lenSq();
+		real.conj(A.real).mulThis(inv);
+		dual.conj(A.dual).mulThis(inv);
+
+		return this;
+	}
+	public DualQuaternion mul(
+		float Arw, float Arx, float Ary, float Arz,
+		float Adw, float Adx, float Ady, float Adz,
+		float Brw, float Brx, float Bry, float Brz,
+		float Bdw, float Bdx, float Bdy, float Bdz
+	) {
+		// (Ar + Ad*e)*(Br + Bd*e) = Ar*Br + (Ar*Bd + Ad*Br)*e
+		float Cw = Arw*Brw - Arx*Brx - Ary*Bry - Arz*Brz;
+		float Cx = Arx*Brw + Arw*Brx - Arz*Bry + Ary*Brz;
+		float Cy = Ary*Brw + Arz*Brx + Arw*Bry - Arx*Brz;
+		float Cz = Arz*Brw - Ary*Brx + Arx*Bry + Arw*Brz;
+
+		float Dw = Arw*Bdw - Arx*Bdx - Ary*Bdy - Arz*Bdz
+		         + Adw*Brw - Adx*Brx - Ady*Bry - Adz*Brz;
+		float Dx = Arx*Bdw + Arw*Bdx - Arz*Bdy + Ary*Bdz
+		         + Adx*Brw + Adw*Brx - Adz*Bry + Ady*Brz;
+		float Dy = Ary*Bdw + Arz*Bdx + Arw*Bdy - Arx*Bdz
+		         + Ady*Brw + Adz*Brx + Adw*Bry - Adx*Brz;
+		float Dz = Arz*Bdw - Ary*Bdx + Arx*Bdy + Arw*Bdz
+		         + Adz*Brw - Ady*Brx + Adx*Bry + Adw*Brz;
+
+		real.set(Cw, Cx, Cy, Cz);
+		dual.set(Dw, Dx, Dy, Dz);
+
+		return this;
+	}
+
+// Transformation
+	public Vector3f transform(float vx, float vy, float vz, Vector3f output) {
+		Quaternion r = real, d = dual;
+		float inv = 1f/(r.w*r.w + r.x*r.x + r.y*r.y + r.z*r.z);
+
+		// translation = 2*dual*inverse(real)
+		float tx = 2f*inv*(d.x*r.w - d.w*r.x + d.z*r.y - d.y*r.z);
+		float ty = 2f*inv*(d.y*r.w - d.z*r.x - d.w*r.y + d.x*r.z);
+		float tz = 2f*inv*(d.z*r.w + d.y*r.x - d.x*r.y - d.w*r.z);
+
+		r.sandwich(vx, vy, vz, output);
+		output.x += tx;
+		output.y += ty;
+		output.z += tz;
+
+		return output;
+	}
+
+// Interpolation
+	public DualQuaternion sclerp(DualQuaternion A, DualQuaternion B, float t) {
+		// A and B are expected to be unit
+		float Arw = A.real.w, Arx = A.real.x, Ary = A.real.y, Arz = A.real.z;
+		float Adw = A.dual.w, Adx = A.dual.x, Ady = A.dual.y, Adz = A.dual.z;
+		float sign = A.real.dot(B.real) < 0f ? -1f : 1f;
+
+		// get B relative to A, nearest of B and -B
+		this.mul(
+			Arw, -Arx, -Ary, -Arz,
+			Adw, -Adx, -Ady, -Adz,
+			sign*B.real.w, sign*B.real.x, sign*B.real.y, sign*B.real.z,
+			sign*B.dual.w, sign*B.dual.x, sign*B.dual.y, sign*B.dual.z
+		);
+
+		// raise it to the power t through its screw parameters
+		Quaternion r = real, d = dual;
+		float s = (float) Math.sqrt(r.x*r.x + r.y*r.y + r.z*r.z);
+		if (s < 1e-6f) {
+			// (almost) pure translation, scale it
+			real.set(1f, 0f, 0f, 0f);
+			dual.set(0f, t*d.x, t*d.y, t*d.z);
+		} else {
+			float inv = 1f/s;
+			float lx = inv*r.x, ly = inv*r.y, lz = inv*r.z; // screw axis
+			float pitch = -2f*inv*d.w; // translation along the axis
+			float mx = inv*(d.x - 0.5f*pitch*r.w*lx); // moment of the axis
+			float my = inv*(d.y - 0.5f*pitch*r.w*ly);
+			float mz = inv*(d.z - 0.5f*pitch*r.w*lz);
+
+			float half = t*(float) Math.atan2(s, r.w);
+			float cos = (float) Math.cos(half);
+			float sin = (float) Math.sin(half);
+			float p = 0.5f*t*pitch;
+
+			real.set(cos, sin*lx, sin*ly, sin*lz);
+			dual.set(-p*sin, p*cos*lx + sin*mx, p*cos*ly + sin*my, p*cos*lz + sin*mz);
+		}
+
+		return this.mul(
+			Arw, Arx, Ary, Arz,
+			Adw, Adx, Ady, Adz,
+			real.w, real.x, real.y, real.z,
+			dual.w, dual.x, dual.y, dual.z
+		);
+	}
+	public DualQuaternion dlb(DualQuaternion A, DualQuaternion B, float t) {
+		// dual quaternion linear blending, cheaper than sclerp but does not move at a constant rate
+		float s0 = 1f - t;
+		float s1 = A.real.dot(B.real) < 0f ? -t : t;
+
+		real.set(
+			s0*A.real.w + s1*B.real.w, s0*A.real.x + s1*B.real.x,
+			s0*A.real.y + s1*B.real.y, s0*A.real.z + s1*B.real.z
+		);
+		dual.set(
+			s0*A.dual.w + s1*B.dual.w, s0*A.dual.x + s1*B.dual.x,
+			s0*A.dual.y + s1*B.dual.y, s0*A.dual.z + s1*B.dual.z
+		);
+
+		return this.unit(this);
+	}
+
+// conversion from
+	public DualQuaternion setFromRotationTranslation(Quaternion R, float tx, float ty, float tz) {
+		// dual = translation*rotation/2, translation is treated as a pure imaginary quaternion
+		float Dw = 0.5f*(-tx*R.x - ty*R.y - tz*R.z);
+		float Dx = 0.5f*( tx*R.w + ty*R.z - tz*R.y);
+		float Dy = 0.5f*( ty*R.w + tz*R.x - tx*R.z);
+		float Dz = 0.5f*( tz*R.w + tx*R.y - ty*R.x);
+
+		real.set(R.w, R.x, R.y, R.z);
+		dual.set(Dw, Dx, Dy, Dz);
+
+		return this;
+	}
+
+// conversion to
+	public Quaternion toRotation(Quaternion output) {
+		return output.set(real.w, real.x, real.y, real.z);
+	}
+	public Vector3f toTranslation(Vector3f output) {
+		return this.transform(0f, 0f, 0f, output);
+	}
+
+	public DualQuaternion loadIdentity() {
+		real.loadIdentity();
+		dual.set(0f, 0f, 0f, 0f);
+
+		return this;
+	}
+	public String toString() {
+		return "(" + real + ") + (" + dual + ")*e";
+	}
+
+	//	alt arguments
+	public DualQuaternion mul(DualQuaternion A, DualQuaternion B) {return this.mul(
+		A.real.w, A.real.x, A.real.y, A.real.z,
+		A.dual.w, A.dual.x, A.dual.y, A.dual.z,
+		B.real.w, B.real.x, B.real.y, B.real.z,
+		B.dual.w, B.dual.x, B.dual.y, B.dual.z
+	);}
+	public Vector3f transform(Vector3f vector, Vector3f output) {return this.transform(vector.x, vector.y, vector.z, output);}
+	public DualQuaternion setFromRotationTranslation(Quaternion R, Vector3f translation) {return this.setFromRotationTranslation(R, translation.x, translation.y, translation.z);}
+
+	//	immutable shorthand
+	public DualQuaternion unit() {return new DualQuaternion().unit(this);}
+	public DualQuaternion neg() {return new DualQuaternion().neg(this);}
+	public DualQuaternion conj() {return new DualQuaternion().conj(this);}
+	public DualQuaternion inv() {return new DualQuaternion().inv(this);}
+	public DualQuaternion mul(DualQuaternion that) {return new DualQuaternion().mul(this, that);}
+	public DualQuaternion sclerp(DualQuaternion that, float t) {return new DualQuaternion().sclerp(this, that, t);}
+	public DualQuaternion dlb(DualQuaternion that, float t) {return new DualQuaternion().dlb(this, that, t);}
+	public Vector3f toTranslation() {return this.toTranslation(new Vector3f());}
+
+	//	static shorthand
+	public static DualQuaternion fromRotationTranslation(Quaternion R, float tx, float ty, float tz) {return new DualQuaternion().setFromRotationTranslation(R, tx, ty, tz);}
+	public static DualQuaternion fromRotationTranslation(Quaternion R, Vector3f translation) {return new DualQuaternion().setFromRotationTranslation(R, translation);}
+
+	//	updater shorthand
+	public DualQuaternion unitThis() {return this.unit(this);}
+	public DualQuaternion invThis() {return this.inv(this);}
+}
@@ -0,0 +1,127 @@
+// Structure of arrays storage for many dual quaternions, typically the bones of a skeleton
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+public final class DualQuaternionArray {
+	public final QuaternionArray real, dual;
+	public final int length;
+
+	public DualQuaternionArray(int length) {
+		this.real = new QuaternionArray(length);
+		this.dual = new QuaternionArray(length);
+		this.length = length;
+
+		Arrays.fill(dual.w, 0f);
+	}
+
+	public DualQuaternionArray(QuaternionArray real, QuaternionArray dual) {
+		if (dual.length != real.length) {
+			throw new IllegalArgumentException("real and dual differ in length");
+		}
+		this.real = real;
+		this.dual = dual;
+		this.length = real.length;
+	}
+
+	// element access
+	public DualQuaternion get(int i, DualQuaternion output) {
+		real.get(i, output.real);
+		dual.get(i, output.dual);
+
+		return output;
+	}
+	public DualQuaternionArray set(int i, DualQuaternion D) {
+		real.set(i, D.real);
+		dual.set(i, D.dual);
+
+		return this;
+	}
+
+	// Skinning
+	// linear blend dual quaternion skinning with up to 4 bones per vertex
+	// vertex v is influenced by bones[4*v + k] with weights[4*v + k], k = 0..3
+	// unused influences should have a weight of 0
+	// normals and normalOutput may be null, normals are only rotated
+	public void skin(
+		int[] bones, float[] weights,
+		Vector3fArray positions, Vector3fArray normals,
+		Vector3fArray positionOutput, Vector3fArray normalOutput,
+		int offset, int count
+	) {
+		float[] rw = real.w, rx = real.x, ry = real.y, rz = real.z;
+		float[] dw = dual.w, dx = dual.x, dy = dual.y, dz = dual.z;
+
+		for (int v = offset; v < offset + count; v++) {
+			int b = 4*v;
+			int j0 = bones[b];
+			float Rw = 0f, Rx = 0f, Ry = 0f, Rz = 0f;
+			float Dw = 0f, Dx = 0f, Dy = 0f, Dz = 0f;
+
+			for (int k = 0; k < 4; k++) {
+				int j = bones[b + k];
+				float wt = weights[b + k];
+				// blend each bone on the same side as the first to avoid the antipodal artifact
+				if (rw[j0]*rw[j] + rx[j0]*rx[j] + ry[j0]*ry[j] + rz[j0]*rz[j] < 0f) {
+					wt = -wt;
+				}
+				Rw += wt*rw[j];
+				Rx += wt*rx[j];
+				Ry += wt*ry[j];
+				Rz += wt*rz[j];
+				Dw += wt*dw[j];
+				Dx += wt*dx[j];
+				Dy += wt*dy[j];
+				Dz += wt*dz[j];
+			}
+
+			float inv = 1f/(float) Math.sqrt(Rw*Rw + Rx*Rx + Ry*Ry + Rz*Rz);
+			Rw *= inv;
+			Rx *= inv;
+			Ry *= inv;
+			Rz *= inv;
+			Dw *= inv;
+			Dx *= inv;
+			Dy *= inv;
+			Dz *= inv;
+
+			// translation = 2*dual*conj(real)
+			float tx = 2f*(Dx*Rw - Dw*Rx + Dz*Ry - Dy*Rz);
+			float ty = 2f*(Dy*Rw - Dz*Rx - Dw*Ry + Dx*Rz);
+			float tz = 2f*(Dz*Rw + Dy*Rx - Dx*Ry - Dw*Rz);
+
+			// rotate as p + 2*r x (r x p + w*p), valid since real is unit
+			float px = positions.x[v], py = positions.y[v], pz = positions.z[v];
+			float cx = Ry*pz - Rz*py + Rw*px;
+			float cy = Rz*px - Rx*pz + Rw*py;
+			float cz = Rx*py - Ry*px + Rw*pz;
+			positionOutput.x[v] = px + 2f*(Ry*cz - Rz*cy) + tx;
+			positionOutput.y[v] = py + 2f*(Rz*cx - Rx*cz) + ty;
+			positionOutput.z[v] = pz + 2f*(Rx*cy - Ry*cx) + tz;
+
+			if (normals != null) {
+				float nx = normals.x[v], ny = normals.y[v], nz = normals.z[v];
+				cx = Ry*nz - Rz*ny + Rw*nx;
+				cy = Rz*nx - Rx*nz + Rw*ny;
+				cz = Rx*ny - Ry*nx + Rw*nz;
+				normalOutput.x[v] = nx + 2f*(Ry*cz - Rz*cy);
+				normalOutput.y[v] = ny + 2f*(Rz*cx - Rx*cz);
+				normalOutput.z[v] = nz + 2f*(Rx*cy - Ry*cx);
+			}
+		}
+	}
+	public void skinParallel(
+		int[] bones, float[] weights,
+		Vector3fArray positions, Vector3fArray normals,
+		Vector3fArray positionOutput, Vector3fArray normalOutput,
+		int offset, int count
+	) {
+		IntStream.range(0, QuaternionArray.chunks(count)).parallel().forEach(c -> {
+			int start = offset + c*QuaternionArray.CHUNK;
+			skin(
+				bones, weights, positions, normals, positionOutput, normalOutput,
+				start, Math.min(QuaternionArray.CHUNK, offset + count - start)
+			);
+		});
+	}
+}
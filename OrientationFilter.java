@@ -0,0 +1,134 @@
+// Complementary orientation filter for many gyroscope + accelerometer devices at once
+// Each sample integrates the gyroscope, then pulls the orientation toward
+// Quaternion.align of the measured up direction (the accelerometer, in device space) onto +z
+// There is no magnetometer, so rotation about +z (yaw) is left to the gyroscope
+//
+// orientations[i] takes device i's space into world space
+// gyroscope samples are in radians per second, in device space
+// accelerometer samples need only their direction, which is up when the device is at rest
+
+import java.nio.ByteBuffer;
+
+public final class OrientationFilter {
+	public final QuaternionArray orientations;
+	public final int devices;
+
+	// how quickly, in 1/seconds, the accelerometer corrects drift
+	// higher trusts the accelerometer more, lower trusts the gyroscope more
+	public float correctionRate = 1f;
+
+	public OrientationFilter(int devices) {
+		this(new QuaternionArray(devices));
+	}
+
+	public OrientationFilter(QuaternionArray orientations) {
+		if (orientations.length < 1) {
+			throw new IllegalArgumentException("a filter needs at least 1 device");
+		}
+		this.orientations = orientations;
+		this.devices = orientations.length;
+	}
+
+	// one sample for each device in [offset, offset + count)
+	public void update(Vector3fArray gyroscope, Vector3fArray accelerometer, float dt, int offset, int count) {
+		float k = Math.min(1f, correctionRate*dt);
+		for (int i = offset; i < offset + count; i++) {
+			step(
+				i, dt, k,
+				gyroscope.x[i], gyroscope.y[i], gyroscope.z[i],
+				accelerometer.x[i], accelerometer.y[i], accelerometer.z[i]
+			);
+		}
+	}
+
+	// samples are read from the buffer's position as frames, in the buffer's byte order
+	// a frame holds gx, gy, gz, ax, ay, az as floats for every device in order
+	// every whole frame is consumed, a trailing partial frame is left for the next call
+	// returns the number of frames consumed
+	public int update(ByteBuffer samples, float dt) {
+		int frameSize = 24*devices;
+		int frames = samples.remaining()/frameSize;
+		float k = Math.min(1f, correctionRate*dt);
+
+		int base = samples.position();
+		for (int f = 0; f < frames; f++) {
+			for (int i = 0; i < devices; i++, base += 24) {
+				step(
+					i, dt, k,
+					samples.getFloat(base), samples.getFloat(base + 4), samples.getFloat(base + 8),
+					samples.getFloat(base + 12), samples.getFloat(base + 16), samples.getFloat(base + 20)
+				);
+			}
+		}
+		samples.position(base);
+
+		return frames;
+	}
+
+	private void step(
+		int i, float dt, float k,
+		float gx, float gy, float gz,
+		float ax, float ay, float az
+	) {
+		float[] w = orientations.w, x = orientations.x, y = orientations.y, z = orientations.z;
+		float Qw = w[i], Qx = x[i], Qy = y[i], Qz = z[i];
+
+		// gyroscope: Q*fromRotationVector(g*dt), g is in device space so it multiplies on the right
+		float rx = gx*dt, ry = gy*dt, rz = gz*dt;
+		float angSq = rx*rx + ry*ry + rz*rz;
+		float cos, sinc; // cos(ang/2), sin(ang/2)/ang
+		if (angSq < 1e-2f) {
+			// per sample increments are normally tiny, skip the trig
+			cos = 1f - angSq*(1f/8f) + angSq*angSq*(1f/384f);
+			sinc = 0.5f - angSq*(1f/48f) + angSq*angSq*(1f/3840f);
+		} else {
+			float ang = (float) Math.sqrt(angSq);
+			cos = (float) Math.cos(0.5f*ang);
+			sinc = (float) Math.sin(0.5f*ang)/ang;
+		}
+		float Rw = cos, Rx = sinc*rx, Ry = sinc*ry, Rz = sinc*rz;
+
+		float Gw = Qw*Rw - Qx*Rx - Qy*Ry - Qz*Rz;
+		float Gx = Qx*Rw + Qw*Rx - Qz*Ry + Qy*Rz;
+		float Gy = Qy*Rw + Qz*Rx + Qw*Ry - Qx*Rz;
+		float Gz = Qz*Rw - Qy*Rx + Qx*Ry + Qw*Rz;
+
+		// accelerometer: G.align(a, +z), with b = (0, 0, 1) folded in
+		float aLenSq = ax*ax + ay*ay + az*az;
+		if (aLenSq > 0f && k > 0f) {
+			float aLenSqInv = 1f/aLenSq;
+			float Sw = aLenSqInv*(Gw*az + Gx*ay - Gy*ax);
+			float Sx = aLenSqInv*(Gw*ay + Gz*ax - Gx*az);
+			float Sy = aLenSqInv*(Gz*ay - Gw*ax - Gy*az);
+			float Sz = aLenSqInv*(Gx*ax + Gy*ay + Gz*az);
+			float mul = (float) Math.sqrt(aLenSqInv);
+
+			float Aw = 0.5f*(Sw + mul*Gw);
+			float Ax = 0.5f*(Sx + mul*Gx);
+			float Ay = 0.5f*(Sy + mul*Gy);
+			float Az = 0.5f*(Sz + mul*Gz);
+			float aLen = (float) Math.sqrt(Aw*Aw + Ax*Ax + Ay*Ay + Az*Az);
+
+			// aligned is 0 when the device appears exactly upside down, then there is nothing to go by
+			if (aLen > 0f) {
+				// nlerp toward the aligned orientation, align already returns the nearer sign
+				float s = k/aLen;
+				float gLen = (float) Math.sqrt(Gw*Gw + Gx*Gx + Gy*Gy + Gz*Gz);
+				float r = (1f - k)/gLen;
+				Gw = r*Gw + s*Aw;
+				Gx = r*Gx + s*Ax;
+				Gy = r*Gy + s*Ay;
+				Gz = r*Gz + s*Az;
+			}
+		}
+
+		float inv = 1f/(float) Math.sqrt(Gw*Gw + Gx*Gx + Gy*Gy + Gz*Gz);
+		w[i] = inv*Gw;
+		x[i] = inv*Gx;
+		y[i] = inv*Gy;
+		z[i] = inv*Gz;
+	}
+
+	//	whole array shorthand
+	public void update(Vector3fArray gyroscope, Vector3fArray accelerometer, float dt) {this.update(gyroscope, accelerometer, dt, 0, devices);}
+}
@@ -0,0 +1,72 @@
+// Throughput of OrientationFilter, in samples (one device, one time step) per second
+// Usage: java OrientationFilterBenchmark [devices, default 4096] [frames per batch, default 16]
+//
+// Every update runs on one thread, so the single threaded rows are samples per second per core
+// The parallel row splits the devices into QuaternionArray sized chunks across all cores
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+public final class OrientationFilterBenchmark {
+	public static void main(String[] args) {
+		int devices = args.length > 0 ? Integer.parseInt(args[0]) : 4096;
+		int frames = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+		float dt = 1f/200f;
+
+		// a device turning at up to a few radians per second, roughly at rest
+		SplittableRandom random = new SplittableRandom(0x5eedL);
+		Vector3fArray[] gyroscope = new Vector3fArray[frames];
+		Vector3fArray[] accelerometer = new Vector3fArray[frames];
+		ByteBuffer samples = ByteBuffer.allocateDirect(24*devices*frames).order(ByteOrder.nativeOrder());
+		for (int f = 0; f < frames; f++) {
+			gyroscope[f] = new Vector3fArray(devices);
+			accelerometer[f] = new Vector3fArray(devices);
+			for (int i = 0; i < devices; i++) {
+				float gx = (float) random.nextDouble(-3.0, 3.0), gy = (float) random.nextDouble(-3.0, 3.0), gz = (float) random.nextDouble(-3.0, 3.0);
+				float ax = (float) random.nextDouble(-1.0, 1.0), ay = (float) random.nextDouble(-1.0, 1.0), az = (float) random.nextDouble(8.0, 10.0);
+				gyroscope[f].set(i, gx, gy, gz);
+				accelerometer[f].set(i, ax, ay, az);
+				samples.putFloat(gx).putFloat(gy).putFloat(gz).putFloat(ax).putFloat(ay).putFloat(az);
+			}
+		}
+		samples.flip();
+
+		OrientationFilter filter = new OrientationFilter(devices);
+		long ops = (long) devices*frames;
+
+		report("arrays", Benchmark.nanosPerOp(() -> {
+			for (int f = 0; f < frames; f++) {
+				filter.update(gyroscope[f], accelerometer[f], dt, 0, devices);
+			}
+			return filter.orientations.w[0];
+		}, ops), 1);
+
+		report("ByteBuffer", Benchmark.nanosPerOp(() -> {
+			samples.rewind();
+			filter.update(samples, dt);
+			return filter.orientations.w[0];
+		}, ops), 1);
+
+		int cores = Runtime.getRuntime().availableProcessors();
+		int chunks = QuaternionArray.chunks(devices);
+		report("arrays, parallel", Benchmark.nanosPerOp(() -> {
+			for (int f = 0; f < frames; f++) {
+				Vector3fArray g = gyroscope[f], a = accelerometer[f];
+				IntStream.range(0, chunks).parallel().forEach(c -> {
+					int start = c*QuaternionArray.CHUNK;
+					filter.update(g, a, dt, start, Math.min(QuaternionArray.CHUNK, devices - start));
+				});
+			}
+			return filter.orientations.w[0];
+		}, ops), cores);
+	}
+
+	private static void report(String name, double nanos, int cores) {
+		System.out.printf(
+			"%-20s %8.2f ns/sample %14.0f samples/s %14.0f samples/s/core%n",
+			name, nanos, 1e9/nanos, 1e9/nanos/cores
+		);
+	}
+}
@@ -0,0 +1,154 @@
+// QuaternionPacked (interleaved, AoS) against QuaternionArray (structure of arrays, SoA)
+// kernel for kernel, on the same random data
+// Usage: java PackedBenchmark [elements, default 4096]
+//
+// SoA matrices go through a FloatBuffer wrapping a float[], as QuaternionArray takes them
+// Kernels without a QuaternionArray counterpart show - in the SoA column
+
+import java.nio.FloatBuffer;
+import java.util.SplittableRandom;
+
+public final class PackedBenchmark {
+	public static void main(String[] args) {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 4096;
+
+		SplittableRandom random = new SplittableRandom(0x5eedL);
+		QuaternionArray A = new QuaternionArray(n).setFromRandom(random);
+		QuaternionArray B = new QuaternionArray(n).setFromRandom(random);
+		QuaternionArray C = new QuaternionArray(n);
+		Vector3fArray U = new Vector3fArray(n), V = new Vector3fArray(n);
+		float[] a = new float[4*n], b = new float[4*n], c = new float[4*n];
+		float[] u = new float[3*n], v = new float[3*n];
+		float[] m = new float[9*n];
+		QuaternionPacked.setFromArray(a, 0, 4, A, 0, n);
+		QuaternionPacked.setFromArray(b, 0, 4, B, 0, n);
+		for (int i = 0; i < n; i++) {
+			float x = (float) random.nextDouble(-1.0, 1.0), y = (float) random.nextDouble(-1.0, 1.0), z = (float) random.nextDouble(-1.0, 1.0);
+			U.set(i, x, y, z);
+			u[3*i] = x;
+			u[3*i + 1] = y;
+			u[3*i + 2] = z;
+		}
+		QuaternionPacked.toRotationMatrix(m, 0, 9, a, 0, 4, n);
+		FloatBuffer matrices = FloatBuffer.wrap(m.clone());
+
+		System.out.printf("%-24s %12s %12s %8s%n", "kernel", "AoS ns", "SoA ns", "AoS/SoA");
+
+		report("unit",
+			Benchmark.nanosPerOp(() -> {
+				QuaternionPacked.unit(c, 0, 4, a, 0, 4, n);
+				return c[0];
+			}, n),
+			Benchmark.nanosPerOp(() -> {
+				C.unit(A, 0, n);
+				return C.w[0];
+			}, n)
+		);
+		report("mul",
+			Benchmark.nanosPerOp(() -> {
+				QuaternionPacked.mul(c, 0, 4, a, 0, 4, b, 0, 4, n);
+				return c[0];
+			}, n),
+			Benchmark.nanosPerOp(() -> {
+				C.mul(A, B, 0, n);
+				return C.w[0];
+			}, n)
+		);
+		report("invMul",
+			Benchmark.nanosPerOp(() -> {
+				QuaternionPacked.invMul(c, 0, 4, a, 0, 4, b, 0, 4, n);
+				return c[0];
+			}, n),
+			Benchmark.nanosPerOp(() -> {
+				C.invMul(A, B, 0, n);
+				return C.w[0];
+			}, n)
+		);
+		report("slerp",
+			Benchmark.nanosPerOp(() -> {
+				QuaternionPacked.slerp(c, 0, 4, a, 0, 4, b, 0, 4, 0.3f, n);
+				return c[0];
+			}, n),
+			Benchmark.nanosPerOp(() -> {
+				C.slerp(A, B, 0.3f, 0, n);
+				return C.w[0];
+			}, n)
+		);
+		report("slerpNearest",
+			Benchmark.nanosPerOp(() -> {
+				QuaternionPacked.slerpNearest(c, 0, 4, a, 0, 4, b, 0, 4, 0.3f, n);
+				return c[0];
+			}, n),
+			Benchmark.nanosPerOp(() -> {
+				C.slerpNearest(A, B, 0.3f, 0, n);
+				return C.w[0];
+			}, n)
+		);
+		report("sandwich",
+			Benchmark.nanosPerOp(() -> {
+				QuaternionPacked.sandwich(v, 0, 3, a, 0, 4, u, 0, 3, n);
+				return v[0];
+			}, n),
+			Benchmark.nanosPerOp(() -> {
+				A.sandwich(U, V, 0, n);
+				return V.x[0];
+			}, n)
+		);
+		report("setFromRotationMatrix",
+			Benchmark.nanosPerOp(() -> {
+				QuaternionPacked.setFromRotationMatrix(c, 0, 4, m, 0, 9, n);
+				return c[0];
+			}, n),
+			Benchmark.nanosPerOp(() -> {
+				C.setFromRotationMatrix(matrices.rewind(), false, 0, n);
+				return C.w[0];
+			}, n)
+		);
+		report("toRotationMatrix",
+			Benchmark.nanosPerOp(() -> {
+				QuaternionPacked.toRotationMatrix(m, 0, 9, a, 0, 4, n);
+				return m[0];
+			}, n),
+			Benchmark.nanosPerOp(() -> {
+				A.toRotationMatrix(matrices.rewind(), false, 0, n);
+				return matrices.get(0);
+			}, n)
+		);
+		report("setFromRotationVector",
+			Benchmark.nanosPerOp(() -> {
+				QuaternionPacked.setFromRotationVector(c, 0, 4, u, 0, 3, n);
+				return c[0];
+			}, n),
+			Double.NaN
+		);
+		report("toRotationVector",
+			Benchmark.nanosPerOp(() -> {
+				QuaternionPacked.toRotationVector(v, 0, 3, a, 0, 4, n);
+				return v[0];
+			}, n),
+			Double.NaN
+		);
+		report("setFromEulerXYZ",
+			Benchmark.nanosPerOp(() -> {
+				QuaternionPacked.setFromEulerXYZ(c, 0, 4, u, 0, 3, n);
+				return c[0];
+			}, n),
+			Double.NaN
+		);
+		report("toEulerXYZ",
+			Benchmark.nanosPerOp(() -> {
+				QuaternionPacked.toEulerXYZ(v, 0, 3, a, 0, 4, n);
+				return v[0];
+			}, n),
+			Double.NaN
+		);
+	}
+
+	private static void report(String name, double aos, double soa) {
+		if (Double.isNaN(soa)) {
+			System.out.printf("%-24s %12.2f %12s %8s%n", name, aos, "-", "-");
+		} else {
+			System.out.printf("%-24s %12.2f %12.2f %8.2f%n", name, aos, soa, aos/soa);
+		}
+	}
+}
@@ -24,6 +24,8 @@ SOFTWARE. */
 // While also being reasonably numerically stable and efficient
 // Every function has been derived or rederived from scratch
 
+import java.util.random.RandomGenerator;
+
 public final class Quaternion {
 	// base functionality
 	public float w, x, y, z;
@@ -183,6 +185,62 @@ public final class Quaternion {
 		return this;
 	}
 
+	// Exponential and logarithm, valid for non-unit quaternions
+	// for a unit quaternion, log gives half the rotation vector
+	public Quaternion log(Quaternion A) {
+		float imSq = A.x*A.x + A.y*A.y + A.z*A.z;
+		float lenSq = A.w*A.w + imSq;
+
+		// atan2(im, w)/im, the angle per unit of imaginary part
+		float mul;
+		if (imSq < 1e-2f*A.w*A.w && A.w > 0f) {
+			// atan(r)/r series, r = im/w, avoids 0/0 near the identity
+			float rSq = imSq/(A.w*A.w);
+			mul = (1f - rSq*(1f/3f) + rSq*rSq*(1f/5f))/A.w;
+		} else if (imSq == 0f) {
+			// negative real, any axis works but one has to be picked
+			w = 0.5f*(float) Math.log(lenSq);
+			x = (float) Math.PI;
+			y = 0f;
+			z = 0f;
+			return this;
+		} else {
+			float im = (float) Math.sqrt(imSq);
+			mul = (float) Math.atan2(im, A.w)/im;
+		}
+
+		w = 0.5f*(float) Math.log(lenSq);
+		x = mul*A.x;
+		y = mul*A.y;
+		z = mul*A.z;
+
+		return this;
+	}
+	public Quaternion exp(Quaternion A) {
+		float angSq = A.x*A.x + A.y*A.y + A.z*A.z;
+		float len = (float) Math.exp(A.w);
+
+		float cos, sinc; // cos(ang), sin(ang)/ang
+		if (angSq < 1e-2f) {
+			cos = 1f - angSq*(1f/2f) + angSq*angSq*(1f/24f);
+			sinc = 1f - angSq*(1f/6f) + angSq*angSq*(1f/120f);
+		} else {
+			float ang = (float) Math.sqrt(angSq);
+			cos = (float) Math.cos(ang);
+			sinc = (float) Math.sin(ang)/ang;
+		}
+
+		w = len*cos;
+		x = len*sinc*A.x;
+		y = len*sinc*A.y;
+		z = len*sinc*A.z;
+
+		return this;
+	}
+	public Quaternion pow(Quaternion A, float t) {
+		return this.exp(this.log(A).mulThis(t));
+	}
+
 	//Projections
 	public Quaternion project(Quaternion Q, float ax, float ay, float az) {
 		float aLenSq = ax*ax + ay*ay + az*az;
@@ -206,6 +264,40 @@ public final class Quaternion {
 		float ang = (float) Math.atan2(aDotQ, w*aLen);
 		return ang;
 	}
+	public float toSwingTwist(
+		float ax, float ay, float az,
+		Quaternion swingOutput, Quaternion twistOutput
+	) {
+		// this = swing*twist, twist is about a and swing is about an axis perpendicular to a
+		// twist is chosen with a non-negative w so the returned twist angle is within [-pi, pi]
+		float aInv = 1f/(float) Math.sqrt(ax*ax + ay*ay + az*az);
+		float nx = aInv*ax;
+		float ny = aInv*ay;
+		float nz = aInv*az;
+
+		float sign = w < 0f ? -1f : 1f;
+		float Tw = sign*w;
+		float p = sign*(x*nx + y*ny + z*nz);
+		float len = (float) Math.sqrt(Tw*Tw + p*p);
+		if (len == 0f) {
+			// a half turn about an axis perpendicular to a, there is no twist
+			swingOutput.set(w, x, y, z);
+			twistOutput.loadIdentity();
+			return 0f;
+		}
+
+		// swing = this*conj(twist), done without forming twist first
+		float inv = 1f/len;
+		float Sw = sign*len;
+		float Sx = inv*(Tw*x - w*p*nx - p*(y*nz - z*ny));
+		float Sy = inv*(Tw*y - w*p*ny - p*(z*nx - x*nz));
+		float Sz = inv*(Tw*z - w*p*nz - p*(x*ny - y*nx));
+
+		twistOutput.set(inv*Tw, inv*p*nx, inv*p*ny, inv*p*nz);
+		swingOutput.set(Sw, Sx, Sy, Sz);
+
+		return 2f*(float) Math.atan2(p, Tw);
+	}
 	public Quaternion align(
 		Quaternion Q,
 		float ax, float ay, float az,
@@ -366,6 +458,42 @@ public final class Quaternion {
 
 		return this;
 	}
+	public Quaternion setFromRandom(RandomGenerator random) {
+		// Marsaglia: two points in the unit disk, no logs and no trig
+		float Aw, Ax, s0;
+		do {
+			Aw = 2f*random.nextFloat() - 1f;
+			Ax = 2f*random.nextFloat() - 1f;
+			s0 = Aw*Aw + Ax*Ax;
+		} while (s0 >= 1f);
+		float Ay, Az, s1;
+		do {
+			Ay = 2f*random.nextFloat() - 1f;
+			Az = 2f*random.nextFloat() - 1f;
+			s1 = Ay*Ay + Az*Az;
+		} while (s1 >= 1f || s1 == 0f);
+		float mul = (float) Math.sqrt((1f - s0)/s1);
+
+		w = Aw;
+		x = Ax;
+		y = mul*Ay;
+		z = mul*Az;
+
+		return this;
+	}
+	public Quaternion setFromRandomCube(float u0, float u1, float u2) {
+		// Shoemake: maps the unit cube uniformly onto the rotations
+		// suitable for low-discrepancy sequences which must not be rejected
+		float m0 = (float) Math.sqrt(1f - u0);
+		float m1 = (float) Math.sqrt(u0);
+
+		w = m0*(float) Math.cos(6.2831853f*u1);
+		x = m0*(float) Math.sin(6.2831853f*u1);
+		y = m1*(float) Math.cos(6.2831853f*u2);
+		z = m1*(float) Math.sin(6.2831853f*u2);
+
+		return this;
+	}
 	public Quaternion setFromRotationMatrix(
 		float xx, float yx, float zx,
 		float xy, float yy, float zy,
@@ -430,6 +558,11 @@ public final class Quaternion {
 
 		float cos = (float) Math.cos(0.5f*ang);
 		float sin = (float) Math.sin(0.5f*ang);
+
+		return this.setFromHalfAngleAxis(cos, sin, ax, ay, az, len);
+	}
+	// cosine and sine of half the angle, with the axis length already known
+	Quaternion setFromHalfAngleAxis(float cos, float sin, float ax, float ay, float az, float len) {
 		float inv = 1f/len;
 
 		w = cos;
@@ -447,6 +580,14 @@ public final class Quaternion {
 		float sinY = (float) Math.sin(0.5f*Y);
 		float sinZ = (float) Math.sin(0.5f*Z);
 
+		return this.setFromHalfEulerXYZ(cosX, sinX, cosY, sinY, cosZ, sinZ);
+	}
+	// cosines and sines of half of each Euler angle
+	Quaternion setFromHalfEulerXYZ(
+		float cosX, float sinX,
+		float cosY, float sinY,
+		float cosZ, float sinZ
+	) {
 		w = cosX*cosY*cosZ - sinX*sinY*sinZ;
 		x = cosY*cosZ*sinX + cosX*sinY*sinZ;
 		y = cosX*cosZ*sinY - cosY*sinX*sinZ;
@@ -462,6 +603,13 @@ public final class Quaternion {
 		float sinY = (float) Math.sin(0.5f*Y);
 		float sinZ = (float) Math.sin(0.5f*Z);
 
+		return this.setFromHalfEulerXZY(cosX, sinX, cosZ, sinZ, cosY, sinY);
+	}
+	Quaternion setFromHalfEulerXZY(
+		float cosX, float sinX,
+		float cosZ, float sinZ,
+		float cosY, float sinY
+	) {
 		w = cosX*cosY*cosZ + sinX*sinY*sinZ;
 		x = cosY*cosZ*sinX - cosX*sinY*sinZ;
 		y = cosX*cosZ*sinY - cosY*sinX*sinZ;
@@ -477,6 +625,13 @@ public final class Quaternion {
 		float sinY = (float) Math.sin(0.5f*Y);
 		float sinZ = (float) Math.sin(0.5f*Z);
 
+		return this.setFromHalfEulerYXZ(cosY, sinY, cosX, sinX, cosZ, sinZ);
+	}
+	Quaternion setFromHalfEulerYXZ(
+		float cosY, float sinY,
+		float cosX, float sinX,
+		float cosZ, float sinZ
+	) {
 		w = cosX*cosY*cosZ + sinX*sinY*sinZ;
 		x = cosY*cosZ*sinX + cosX*sinY*sinZ;
 		y = cosX*cosZ*sinY - cosY*sinX*sinZ;
@@ -492,6 +647,13 @@ public final class Quaternion {
 		float sinY = (float) Math.sin(0.5f*Y);
 		float sinZ = (float) Math.sin(0.5f*Z);
 
+		return this.setFromHalfEulerYZX(cosY, sinY, cosZ, sinZ, cosX, sinX);
+	}
+	Quaternion setFromHalfEulerYZX(
+		float cosY, float sinY,
+		float cosZ, float sinZ,
+		float cosX, float sinX
+	) {
 		w = cosX*cosY*cosZ - sinX*sinY*sinZ;
 		x = cosY*cosZ*sinX + cosX*sinY*sinZ;
 		y = cosX*cosZ*sinY + cosY*sinX*sinZ;
@@ -507,6 +669,13 @@ public final class Quaternion {
 		float sinY = (float) Math.sin(0.5f*Y);
 		float sinZ = (float) Math.sin(0.5f*Z);
 
+		return this.setFromHalfEulerZXY(cosZ, sinZ, cosX, sinX, cosY, sinY);
+	}
+	Quaternion setFromHalfEulerZXY(
+		float cosZ, float sinZ,
+		float cosX, float sinX,
+		float cosY, float sinY
+	) {
 		w = cosX*cosY*cosZ - sinX*sinY*sinZ;
 		x = cosY*cosZ*sinX - cosX*sinY*sinZ;
 		y = cosX*cosZ*sinY + cosY*sinX*sinZ;
@@ -522,6 +691,13 @@ public final class Quaternion {
 		float sinY = (float) Math.sin(0.5f*Y);
 		float sinZ = (float) Math.sin(0.5f*Z);
 
+		return this.setFromHalfEulerZYX(cosZ, sinZ, cosY, sinY, cosX, sinX);
+	}
+	Quaternion setFromHalfEulerZYX(
+		float cosZ, float sinZ,
+		float cosY, float sinY,
+		float cosX, float sinX
+	) {
 		w = cosX*cosY*cosZ + sinX*sinY*sinZ;
 		x = cosY*cosZ*sinX - cosX*sinY*sinZ;
 		y = cosX*cosZ*sinY + cosY*sinX*sinZ;
@@ -610,7 +786,7 @@ public final class Quaternion {
 		return ang;
 	}
 	
-	private static float EULER_TOL = 10000f; // approximately tan(pi/2*0.9999)
+	static final float EULER_TOL = 10000f; // approximately tan(pi/2*0.9999)
 	public float[] toEulerXYZ(float[] output) {
 		float zz = w*w - x*x - y*y + z*z;
 		float zy = 2f*(y*z - w*x);
@@ -782,10 +958,11 @@ public final class Quaternion {
 	public Quaternion project(Quaternion Q, Vector3f axis) {return this.project(Q, axis.x, axis.y, axis.z);}
 	public Quaternion projectUnitize(Quaternion Q, Vector3f axis) {return this.projectUnitize(Q, axis.x, axis.y, axis.z);}
 	public float projectedAngle(Vector3f axis) {return this.projectedAngle(axis.x, axis.y, axis.z);}
+	public float toSwingTwist(Vector3f axis, Quaternion swingOutput, Quaternion twistOutput) {return this.toSwingTwist(axis.x, axis.y, axis.z, swingOutput, twistOutput);}
 	public Quaternion align(Quaternion Q, Vector3f a, Vector3f b) {return this.align(Q, a.x, a.y, a.z, b.x, b.y, b.z);}
 	public Quaternion alignUnitize(Quaternion Q, Vector3f a, Vector3f b) {return this.alignUnitize(Q, a.x, a.y, a.z, b.x, b.y, b.z);}
 	public Quaternion slerp(Quaternion A, Quaternion B, float t) {return this.slerp(A.w, A.x, A.y, A.z, B.w, B.x, B.y, B.z, t);}
-	public Quaternion slerpNearest(Quaternion A, Quaternion B, float t) {return this.slerp(A.w, A.x, A.y, A.z, B.w, B.x, B.y, B.z, t);}
+	public Quaternion slerpNearest(Quaternion A, Quaternion B, float t) {return this.slerpNearest(A.w, A.x, A.y, A.z, B.w, B.x, B.y, B.z, t);}
 	public Quaternion setFromRotationMatrix(Matrix3f matrix) {return this.setFromRotationMatrix(
 		matrix.m00, matrix.m01, matrix.m02,
 		matrix.m10, matrix.m11, matrix.m12,
@@ -850,6 +1027,9 @@ public final class Quaternion {
 	public Quaternion mul(Quaternion that) {return new Quaternion().mul(this, that);}
 	public Quaternion invMul(Quaternion that) {return new Quaternion().invMul(this, that);}
 	public Quaternion mulInv(Quaternion that) {return new Quaternion().mulInv(this, that);}
+	public Quaternion log() {return new Quaternion().log(this);}
+	public Quaternion exp() {return new Quaternion().exp(this);}
+	public Quaternion pow(float t) {return new Quaternion().pow(this, t);}
 	public Quaternion project(float ax, float ay, float az) {return new Quaternion().project(this, ax, ay, az);}
 	public Quaternion projectUnitize(float ax, float ay, float az) {return new Quaternion().projectUnitize(this, ax, ay, az);}
 	public Quaternion align(
@@ -879,6 +1059,8 @@ public final class Quaternion {
 	//	become
 	//		Quaternion result = Quaternion.f(!Quaternion ...);
 	public static Quaternion fromRandom(float r0, float r1, float r2, float r3) {return new Quaternion().setFromRandom(r0, r1, r2, r3);}
+	public static Quaternion fromRandom(RandomGenerator random) {return new Quaternion().setFromRandom(random);}
+	public static Quaternion fromRandomCube(float u0, float u1, float u2) {return new Quaternion().setFromRandomCube(u0, u1, u2);}
 	public static Quaternion fromRotationMatrix(
 		float xx, float yx, float zx,
 		float xy, float yy, float zy,
@@ -920,6 +1102,9 @@ public final class Quaternion {
 	public Quaternion invThis() {return this.inv(this);}
 	public Quaternion mulThis(float that) {return this.mul(this, that);}
 	public Quaternion divThis(float that) {return this.div(this, that);}
+	public Quaternion logThis() {return this.log(this);}
+	public Quaternion expThis() {return this.exp(this);}
+	public Quaternion powThis(float t) {return this.pow(this, t);}
 	public Quaternion projectThis(float ax, float ay, float az) {return this.project(this, ax, ay, az);}
 	public Quaternion projectUnitizeThis(float ax, float ay, float az) {return this.projectUnitize(this, ax, ay, az);}
 	public Quaternion alignThis(
@@ -0,0 +1,982 @@
+// Accuracy sweep of the float Quaternion methods against double precision references
+// Usage: java QuaternionAccuracy [samples per check, default 1000000] [seed]
+//
+// Every check draws its own random inputs, some deliberately adversarial
+// (near gimbal lock, near antipodal slerp, tiny rotation vectors, near identity logs)
+// and reports the max and mean error over all samples
+//	ulp: largest component error, in ulps of the reference's magnitude
+//	rad: angle of the rotation between result and reference
+// Samples are split into chunks that run in parallel, each with its own split generator
+// so a given seed always gives the same report
+//
+// Every check has a bound, recorded with the default samples and seed plus some headroom
+// A check fails when its max error passes the bound or any result is NaN or infinite,
+// and the run then exits with status 1
+// Ill conditioned checks have heavy tails, so many more samples can pass their bounds
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+public final class QuaternionAccuracy {
+	private interface Check {
+		double error(SplittableRandom random);
+	}
+
+	private static final class Stats {
+		double max = 0.0;
+		double sum = 0.0;
+		long count = 0;
+		long failures = 0; // NaN or infinite results
+
+		void add(double error) {
+			if (Double.isNaN(error) || Double.isInfinite(error)) {
+				failures++;
+				return;
+			}
+			max = Math.max(max, error);
+			sum += error;
+			count++;
+		}
+		void add(Stats that) {
+			max = Math.max(max, that.max);
+			sum += that.sum;
+			count += that.count;
+			failures += that.failures;
+		}
+	}
+
+	private static final List<String> names = new ArrayList<>();
+	private static final List<String> units = new ArrayList<>();
+	private static final List<Double> bounds = new ArrayList<>();
+	private static final List<Check> checks = new ArrayList<>();
+
+	private static void check(String name, String unit, double bound, Check check) {
+		names.add(name);
+		units.add(unit);
+		bounds.add(bound);
+		checks.add(check);
+	}
+
+	public static void main(String[] args) {
+		long samples = args.length > 0 ? Long.parseLong(args[0]) : 1000000L;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : 0x5eedL;
+		int chunk = 16384;
+		int chunks = (int) ((samples + chunk - 1)/chunk);
+
+		addChecks();
+		addBulkChecks();
+
+		System.out.printf("%-52s %12s %14s %14s %14s%n", "method", "samples", "max", "mean", "bound");
+		int failed = 0;
+		SplittableRandom root = new SplittableRandom(seed);
+		for (int c = 0; c < checks.size(); c++) {
+			Check check = checks.get(c);
+			SplittableRandom[] randoms = new SplittableRandom[chunks];
+			for (int i = 0; i < chunks; i++) {
+				randoms[i] = root.split();
+			}
+
+			Stats stats = IntStream.range(0, chunks).parallel().mapToObj(i -> {
+				Stats s = new Stats();
+				long n = Math.min(chunk, samples - (long) i*chunk);
+				for (long k = 0; k < n; k++) {
+					s.add(check.error(randoms[i]));
+				}
+				return s;
+			}).reduce(new Stats(), (a, b) -> {
+				Stats s = new Stats();
+				s.add(a);
+				s.add(b);
+				return s;
+			});
+
+			double bound = bounds.get(c);
+			boolean fail = stats.max > bound || stats.failures > 0;
+			if (fail) {
+				failed++;
+			}
+			System.out.printf(
+				"%-52s %12d %14.6g %14.6g %14.6g %s%s%s%n",
+				names.get(c), stats.count, stats.max, stats.count == 0 ? 0.0 : stats.sum/stats.count, bound, units.get(c),
+				stats.failures == 0 ? "" : "  (" + stats.failures + " NaN/infinite)",
+				fail ? "  FAIL" : ""
+			);
+		}
+
+		System.out.println(failed == 0 ? "all " + checks.size() + " checks within bounds" : failed + " of " + checks.size() + " checks failed");
+		if (failed > 0) {
+			System.exit(1);
+		}
+	}
+
+	private static void addChecks() {
+		check("unit", "ulp", 2, r -> {
+			Quaternion A = quaternion(r);
+			return ulps(new Quaternion().unit(A), unit(d(A)));
+		});
+		check("inv", "ulp", 6, r -> {
+			Quaternion A = quaternion(r);
+			double[] a = d(A);
+			return ulps(new Quaternion().inv(A), scale(conj(a), 1.0/dot(a, a)));
+		});
+		check("mul", "ulp", 4, r -> {
+			Quaternion A = quaternion(r), B = quaternion(r);
+			return ulps(new Quaternion().mul(A, B), mul(d(A), d(B)));
+		});
+		check("invMul", "ulp", 8, r -> {
+			Quaternion A = quaternion(r), B = quaternion(r);
+			double[] a = d(A);
+			return ulps(new Quaternion().invMul(A, B), scale(mul(conj(a), d(B)), 1.0/dot(a, a)));
+		});
+		check("mulInv", "ulp", 8, r -> {
+			Quaternion A = quaternion(r), B = quaternion(r);
+			double[] b = d(B);
+			return ulps(new Quaternion().mulInv(A, B), scale(mul(d(A), conj(b)), 1.0/dot(b, b)));
+		});
+		check("div", "ulp", 0.5, r -> {
+			Quaternion A = quaternion(r);
+			float b = (float) Math.exp(r.nextDouble(-3.0, 3.0));
+			return ulps(new Quaternion().div(A, b), scale(d(A), 1.0/b));
+		});
+		check("add", "ulp", 0.5, r -> {
+			Quaternion A = quaternion(r), B = quaternion(r);
+			double[] a = d(A), b = d(B);
+			return ulps(new Quaternion().add(A, B), new double[] {a[0] + b[0], a[1] + b[1], a[2] + b[2], a[3] + b[3]});
+		});
+		check("sub", "ulp", 0.5, r -> {
+			Quaternion A = quaternion(r), B = quaternion(r);
+			double[] a = d(A), b = d(B);
+			return ulps(new Quaternion().sub(A, B), new double[] {a[0] - b[0], a[1] - b[1], a[2] - b[2], a[3] - b[3]});
+		});
+		check("dot", "ulp", 4, r -> {
+			// relative to len(A)*len(B), the dot product cancels down to nothing for perpendicular inputs
+			Quaternion A = quaternion(r), B = quaternion(r);
+			double[] a = d(A), b = d(B);
+			double ulp = Math.ulp((float) Math.sqrt(dot(a, a)*dot(b, b)));
+			return Math.abs(A.dot(B) - dot(a, b))/ulp;
+		});
+		check("sandwich", "ulp", 8, r -> {
+			Quaternion A = quaternion(r);
+			float[] v = vector(r);
+			Vector3f out = A.sandwich(v[0], v[1], v[2], new Vector3f());
+			return ulps(new float[] {out.x, out.y, out.z}, rotate(unit(d(A)), v[0], v[1], v[2]));
+		});
+		check("angleTo", "rad", 5e-7, r -> {
+			Quaternion A = unitQuaternion(r), B = unitQuaternion(r);
+			double[] rel = mul(conj(d(A)), d(B));
+			double ref = Math.atan2(Math.sqrt(rel[1]*rel[1] + rel[2]*rel[2] + rel[3]*rel[3]), rel[0]);
+			return Math.abs(A.angleTo(B) - ref);
+		});
+
+		// random pairs include a few nearly opposite ones, the tail of the antipodal case below
+		check("slerp", "rad", 5e-5, r -> slerpError(r, unitQuaternion(r), unitQuaternion(r)));
+		check("slerp near", "rad", 5e-7, r -> {
+			Quaternion A = unitQuaternion(r);
+			return slerpError(r, A, perturb(r, A, 1e-6f));
+		});
+		// known outlier: between nearly opposite quaternions the long way round is ill conditioned,
+		// the error grows as 1/|A + B| and reaches 5e-3 rad at the default samples and seed
+		check("slerp antipodal", "rad", 2e-2, r -> {
+			Quaternion A = unitQuaternion(r);
+			return slerpError(r, A, perturb(r, A, 1e-3f).negThis());
+		});
+
+		for (boolean objects : new boolean[] {false, true}) {
+			String overload = objects ? "(Quaternion)" : "";
+			check("slerpNearest" + overload, "rad", 5e-7, r -> slerpNearestError(r, unitQuaternion(r), unitQuaternion(r), objects));
+			check("slerpNearest" + overload + " antipodal", "rad", 7e-7, r -> {
+				Quaternion A = unitQuaternion(r);
+				return slerpNearestError(r, A, perturb(r, A, 1e-3f).negThis(), objects);
+			});
+		}
+
+		check("toRotationMatrix", "ulp", 4, r -> {
+			Quaternion A = quaternion(r);
+			Matrix3f m = A.toRotationMatrix();
+			double[] ref = matrix(unit(d(A)));
+			return ulps(new float[] {m.m00, m.m01, m.m02, m.m10, m.m11, m.m12, m.m20, m.m21, m.m22}, ref);
+		});
+		check("setFromRotationMatrix", "rad", 6e-7, r -> {
+			Quaternion A = unitQuaternion(r);
+			double[] m = matrix(d(A));
+			Quaternion Q = Quaternion.fromRotationMatrix(
+				(float) m[0], (float) m[1], (float) m[2],
+				(float) m[3], (float) m[4], (float) m[5],
+				(float) m[6], (float) m[7], (float) m[8]
+			);
+			return angle(d(Q), d(A));
+		});
+		check("setFromRotationVector", "rad", 1.5e-6, r -> {
+			float[] v = vector(r);
+			return angle(d(Quaternion.fromRotationVector(v[0], v[1], v[2])), fromRotationVector(v));
+		});
+		check("setFromRotationVector tiny", "rad", 2e-8, r -> {
+			float[] v = tinyVector(r);
+			return angle(d(Quaternion.fromRotationVector(v[0], v[1], v[2])), fromRotationVector(v));
+		});
+		check("toRotationVector", "ulp", 6, r -> {
+			Quaternion A = unitQuaternion(r);
+			Vector3f out = A.toRotationVector();
+			return ulps(new float[] {out.x, out.y, out.z}, scale(vectorPart(log(d(A))), 2.0));
+		});
+		// known outlier: below about 1e-19 the squared length underflows and the result is 0,
+		// an error of the whole value, which is under 2^24 ulp of itself
+		check("toRotationVector tiny", "ulp", 0x1p24, r -> {
+			float[] v = tinyVector(r);
+			Quaternion A = Quaternion.fromRotationVector(v[0], v[1], v[2]);
+			Vector3f out = A.toRotationVector();
+			return ulps(new float[] {out.x, out.y, out.z}, scale(vectorPart(log(d(A))), 2.0));
+		});
+		check("setFromAngleAxis", "rad", 5e-7, r -> {
+			float[] v = vector(r);
+			float ang = (float) (2.0*Math.PI*(2.0*r.nextDouble() - 1.0));
+			double len = Math.sqrt((double) v[0]*v[0] + (double) v[1]*v[1] + (double) v[2]*v[2]);
+			double[] ref = axisAngle(v[0]/len, v[1]/len, v[2]/len, ang);
+			return angle(d(Quaternion.fromAngleAxis(ang, v[0], v[1], v[2])), ref);
+		});
+
+		check("toAxis", "ulp", 3, r -> {
+			Quaternion A = quaternion(r);
+			Vector3f out = A.toAxis();
+			double[] a = d(A);
+			double im = Math.sqrt(a[1]*a[1] + a[2]*a[2] + a[3]*a[3]);
+			return ulps(new float[] {out.x, out.y, out.z}, scale(vectorPart(a), 1.0/im));
+		});
+		check("toAngle", "rad", 7e-7, r -> {
+			Quaternion A = quaternion(r);
+			double[] a = d(A);
+			double im = Math.sqrt(a[1]*a[1] + a[2]*a[2] + a[3]*a[3]);
+			return Math.abs(A.toAngle() - 2.0*Math.atan2(im, a[0]));
+		});
+		check("toAngleAxis", "rad", 7e-7, r -> {
+			Quaternion A = quaternion(r);
+			Vector3f axis = new Vector3f();
+			float ang = A.toAngleAxis(axis);
+			return angle(axisAngle(axis.x, axis.y, axis.z, ang), d(A));
+		});
+
+		check("setFromRandom(float)", "ulp", 7, r -> {
+			float r0 = r.nextFloat(), r1 = r.nextFloat(), r2 = r.nextFloat(), r3 = r.nextFloat();
+			return ulps(Quaternion.fromRandom(r0, r1, r2, r3), fromRandom(r0, r1, r2, r3));
+		});
+		// known outlier: 1 - s0 cancels when s0 comes close to 1, up to 51 ulp at the default samples and seed
+		check("setFromRandom(RandomGenerator)", "ulp", 200, r -> {
+			RecordingRandom random = new RecordingRandom(r);
+			return ulps(Quaternion.fromRandom(random), fromRandom(random.floats));
+		});
+		check("setFromRandomCube", "ulp", 7, r -> {
+			float u0 = r.nextFloat(), u1 = r.nextFloat(), u2 = r.nextFloat();
+			return ulps(Quaternion.fromRandomCube(u0, u1, u2), fromRandomCube(u0, u1, u2));
+		});
+
+		String[] orders = {"XYZ", "XZY", "YXZ", "YZX", "ZXY", "ZYX"};
+		for (String order : orders) {
+			check("setFromEuler" + order, "rad", 6e-7, r -> {
+				float[] e = euler(r, false);
+				return angle(d(fromEuler(order, e)), eulerReference(order, e));
+			});
+			// toEuler gives up the last bits near gimbal lock, see Quaternion.EULER_TOL
+			// recorded maxima 4.9e-4 rad and 7.8e-4 rad with the middle angle at the lock
+			check("toEuler" + order, "rad", 2e-3, r -> eulerRoundTrip(order, euler(r, false)));
+			check("toEuler" + order + " gimbal", "rad", 2e-3, r -> eulerRoundTrip(order, euler(r, true)));
+		}
+
+		check("log", "ulp", 8, r -> {
+			Quaternion A = quaternion(r);
+			return ulps(A.log(), log(d(A)));
+		});
+		check("log near identity", "ulp", 4, r -> {
+			float[] v = tinyVector(r);
+			Quaternion A = Quaternion.fromRotationVector(v[0], v[1], v[2]);
+			Quaternion L = A.log();
+			return ulps(new float[] {L.x, L.y, L.z}, vectorPart(log(d(A))));
+		});
+		check("exp", "ulp", 16, r -> {
+			float[] v = vector(r);
+			Quaternion A = new Quaternion((float) r.nextDouble(-2.0, 2.0), v[0], v[1], v[2]);
+			return ulps(A.exp(), exp(d(A)));
+		});
+		check("pow", "ulp", 40, r -> {
+			Quaternion A = quaternion(r);
+			float t = (float) r.nextDouble(-2.0, 2.0);
+			return ulps(A.pow(t), exp(scale(log(d(A)), t)));
+		});
+		// known outliers: align and project cancel when the inputs are close to degenerate,
+		// recorded maxima 300, 265, 621 and 33 ulp but the tails keep growing with more samples
+		check("align", "ulp", 2000, r -> {
+			Quaternion Q = quaternion(r);
+			float[] a = vector(r), b = vector(r);
+			return ulps(Q.align(a[0], a[1], a[2], b[0], b[1], b[2]), align(d(Q), a, b));
+		});
+		check("alignUnitize", "ulp", 2000, r -> {
+			Quaternion Q = quaternion(r);
+			float[] a = vector(r), b = vector(r);
+			return ulps(Q.alignUnitize(a[0], a[1], a[2], b[0], b[1], b[2]), unit(align(d(Q), a, b)));
+		});
+		check("project", "ulp", 4000, r -> {
+			Quaternion Q = quaternion(r);
+			float[] a = vector(r);
+			return ulps(Q.project(a[0], a[1], a[2]), project(d(Q), a));
+		});
+		check("projectUnitize", "ulp", 500, r -> {
+			Quaternion Q = quaternion(r);
+			float[] a = vector(r);
+			return ulps(Q.projectUnitize(a[0], a[1], a[2]), unit(project(d(Q), a)));
+		});
+		// the angle is ill conditioned where the projection is short, recorded max 1.6e-5 rad
+		check("projectedAngle", "rad", 1e-4, r -> {
+			Quaternion Q = quaternion(r);
+			float[] a = vector(r);
+			double[] p = project(d(Q), a);
+			double len = Math.sqrt((double) a[0]*a[0] + (double) a[1]*a[1] + (double) a[2]*a[2]);
+			double ref = Math.atan2((p[1]*a[0] + p[2]*a[1] + p[3]*a[2])/len, p[0]);
+			return Math.abs(Q.projectedAngle(a[0], a[1], a[2]) - ref);
+		});
+		// the twist is ill conditioned where it is short, recorded max 89 ulp
+		check("toSwingTwist", "ulp", 500, r -> {
+			Quaternion Q = unitQuaternion(r);
+			float[] a = vector(r);
+			Quaternion swing = new Quaternion(), twist = new Quaternion();
+			Q.toSwingTwist(a[0], a[1], a[2], swing, twist);
+			double[] t = twist(d(Q), a);
+			return Math.max(ulps(twist, t), ulps(swing, mul(d(Q), conj(t))));
+		});
+	}
+
+	// QuaternionArray and QuaternionPacked kernels against the Quaternion method each mirrors
+	// every sample is a batch of BATCH elements, the error is the worst element's
+	// Packed data sits at an offset and with a stride wider than the data, to exercise the addressing
+	private static final int BATCH = 8;
+	private static final int Q_OFFSET = 1, Q_STRIDE = 5;
+	private static final int V_OFFSET = 2, V_STRIDE = 4;
+	private static final int M_OFFSET = 3, M_STRIDE = 10;
+
+	private interface Scalar {
+		Quaternion apply(Quaternion A, Quaternion B);
+	}
+
+	// the bulk kernels must match their scalar methods bit for bit, so their ulp bounds are 0
+	private static void addBulkChecks() {
+		bulkCheck("unit", false, (A, B) -> new Quaternion().unit(A),
+			(C, A, B) -> C.unit(A, 0, BATCH),
+			(c, a, b) -> QuaternionPacked.unit(c, Q_OFFSET, Q_STRIDE, a, Q_OFFSET, Q_STRIDE, BATCH));
+		bulkCheck("mul", false, (A, B) -> new Quaternion().mul(A, B),
+			(C, A, B) -> C.mul(A, B, 0, BATCH),
+			(c, a, b) -> QuaternionPacked.mul(c, Q_OFFSET, Q_STRIDE, a, Q_OFFSET, Q_STRIDE, b, Q_OFFSET, Q_STRIDE, BATCH));
+		bulkCheck("invMul", false, (A, B) -> new Quaternion().invMul(A, B),
+			(C, A, B) -> C.invMul(A, B, 0, BATCH),
+			(c, a, b) -> QuaternionPacked.invMul(c, Q_OFFSET, Q_STRIDE, a, Q_OFFSET, Q_STRIDE, b, Q_OFFSET, Q_STRIDE, BATCH));
+		bulkCheck("slerp", true, (A, B) -> new Quaternion().slerp(A, B, 0.3f),
+			(C, A, B) -> C.slerp(A, B, 0.3f, 0, BATCH),
+			(c, a, b) -> QuaternionPacked.slerp(c, Q_OFFSET, Q_STRIDE, a, Q_OFFSET, Q_STRIDE, b, Q_OFFSET, Q_STRIDE, 0.3f, BATCH));
+		bulkCheck("slerpNearest", true, (A, B) -> new Quaternion().slerpNearest(A, B, 0.3f),
+			(C, A, B) -> C.slerpNearest(A, B, 0.3f, 0, BATCH),
+			(c, a, b) -> QuaternionPacked.slerpNearest(c, Q_OFFSET, Q_STRIDE, a, Q_OFFSET, Q_STRIDE, b, Q_OFFSET, Q_STRIDE, 0.3f, BATCH));
+		check("QuaternionArray.log", "ulp", 0.0, r -> {
+			QuaternionArray A = quaternionArray(r, false);
+			QuaternionArray C = new QuaternionArray(BATCH).log(A, 0, BATCH);
+			return bulkError(C, i -> get(A, i).log());
+		});
+		check("QuaternionArray.exp", "ulp", 0.0, r -> {
+			QuaternionArray A = quaternionArray(r, false);
+			QuaternionArray C = new QuaternionArray(BATCH).exp(A, 0, BATCH);
+			return bulkError(C, i -> get(A, i).exp());
+		});
+		check("QuaternionArray.pow", "ulp", 0.0, r -> {
+			QuaternionArray A = quaternionArray(r, false);
+			QuaternionArray C = new QuaternionArray(BATCH).pow(A, 0.7f, 0, BATCH);
+			return bulkError(C, i -> get(A, i).pow(0.7f));
+		});
+		check("QuaternionArray.toSwingTwist", "ulp", 0.0, r -> {
+			QuaternionArray A = quaternionArray(r, true);
+			Vector3fArray axes = vectorArray(r, true);
+			QuaternionArray swing = new QuaternionArray(BATCH), twist = new QuaternionArray(BATCH);
+			float[] angles = new float[BATCH];
+			A.toSwingTwist(axes, swing, twist, angles, 0, BATCH);
+			double err = 0.0;
+			for (int i = 0; i < BATCH; i++) {
+				Quaternion S = new Quaternion(), T = new Quaternion();
+				float angle = get(A, i).toSwingTwist(axes.x[i], axes.y[i], axes.z[i], S, T);
+				err = Math.max(err, Math.max(ulps(get(swing, i), d(S)), ulps(get(twist, i), d(T))));
+				err = Math.max(err, ulps(new float[] {angles[i]}, new double[] {angle}));
+			}
+			return err;
+		});
+		check("QuaternionArray.setFromRandom", "ulp", 0.0, r -> {
+			long seed = r.nextLong();
+			QuaternionArray C = new QuaternionArray(BATCH).setFromRandom(new SplittableRandom(seed), 0, BATCH);
+			SplittableRandom scalar = new SplittableRandom(seed);
+			return bulkError(C, i -> Quaternion.fromRandom(scalar));
+		});
+
+		check("QuaternionArray.sandwich", "ulp", 0.0, r -> {
+			QuaternionArray A = quaternionArray(r, false);
+			Vector3fArray U = vectorArray(r, false);
+			Vector3fArray V = A.sandwich(U, new Vector3fArray(BATCH), 0, BATCH);
+			double err = 0.0;
+			for (int i = 0; i < BATCH; i++) {
+				Vector3f v = get(A, i).sandwich(U.x[i], U.y[i], U.z[i], new Vector3f());
+				err = Math.max(err, ulps(new float[] {V.x[i], V.y[i], V.z[i]}, d(v)));
+			}
+			return err;
+		});
+		check("QuaternionPacked.sandwich", "ulp", 0.0, r -> {
+			QuaternionArray A = quaternionArray(r, false);
+			Vector3fArray U = vectorArray(r, false);
+			float[] a = packed(A), u = packed(U), v = new float[u.length];
+			QuaternionPacked.sandwich(v, V_OFFSET, V_STRIDE, a, Q_OFFSET, Q_STRIDE, u, V_OFFSET, V_STRIDE, BATCH);
+			double err = 0.0;
+			for (int i = 0; i < BATCH; i++) {
+				Vector3f ref = get(A, i).sandwich(U.x[i], U.y[i], U.z[i], new Vector3f());
+				err = Math.max(err, ulps(vectorAt(v, i), d(ref)));
+			}
+			return err;
+		});
+
+		for (boolean columnMajor : new boolean[] {false, true}) {
+			String major = columnMajor ? " column major" : " row major";
+			for (boolean transform : new boolean[] {false, true}) {
+				String name = transform ? "TransformMatrix" : "RotationMatrix";
+				int columns = transform ? 4 : 3;
+				check("QuaternionArray.to" + name + major, "ulp", 0.0, r -> {
+					QuaternionArray A = quaternionArray(r, false);
+					Vector3fArray T = vectorArray(r, false);
+					FloatBuffer m = FloatBuffer.allocate(3*columns*BATCH);
+					if (transform) {
+						A.toTransformMatrix(m, columnMajor, T, 0, BATCH);
+					} else {
+						A.toRotationMatrix(m, columnMajor, 0, BATCH);
+					}
+					double err = 0.0;
+					for (int i = 0; i < BATCH; i++) {
+						float[] e = elements(get(A, i).toRotationMatrix());
+						float[] out = new float[9];
+						for (int k = 0; k < 9; k++) {
+							out[k] = m.get(matrixIndex(i, k/3, k%3, columns, columnMajor));
+						}
+						err = Math.max(err, ulps(out, d(e)));
+						if (transform) {
+							float[] t = {m.get(matrixIndex(i, 0, 3, 4, columnMajor)), m.get(matrixIndex(i, 1, 3, 4, columnMajor)), m.get(matrixIndex(i, 2, 3, 4, columnMajor))};
+							err = Math.max(err, ulps(t, new double[] {T.x[i], T.y[i], T.z[i]}));
+						}
+					}
+					return err;
+				});
+				check("QuaternionArray.setFrom" + name + major, "ulp", 0.0, r -> {
+					QuaternionArray A = quaternionArray(r, true);
+					Vector3fArray T = vectorArray(r, false);
+					FloatBuffer m = FloatBuffer.allocate(3*columns*BATCH);
+					for (int i = 0; i < BATCH; i++) {
+						float[] e = elements(get(A, i).toRotationMatrix());
+						for (int k = 0; k < 9; k++) {
+							m.put(matrixIndex(i, k/3, k%3, columns, columnMajor), e[k]);
+						}
+						if (transform) {
+							m.put(matrixIndex(i, 0, 3, 4, columnMajor), T.x[i]);
+							m.put(matrixIndex(i, 1, 3, 4, columnMajor), T.y[i]);
+							m.put(matrixIndex(i, 2, 3, 4, columnMajor), T.z[i]);
+						}
+					}
+					QuaternionArray C = new QuaternionArray(BATCH);
+					Vector3fArray U = new Vector3fArray(BATCH);
+					if (transform) {
+						C.setFromTransformMatrix(m, columnMajor, U, 0, BATCH);
+					} else {
+						C.setFromRotationMatrix(m, columnMajor, 0, BATCH);
+					}
+					double err = 0.0;
+					for (int i = 0; i < BATCH; i++) {
+						float[] e = elements(get(A, i).toRotationMatrix());
+						Quaternion ref = Quaternion.fromRotationMatrix(e[0], e[1], e[2], e[3], e[4], e[5], e[6], e[7], e[8]);
+						err = Math.max(err, ulpsEitherSign(get(C, i), ref));
+						if (transform) {
+							err = Math.max(err, ulps(new float[] {U.x[i], U.y[i], U.z[i]}, new double[] {T.x[i], T.y[i], T.z[i]}));
+						}
+					}
+					return err;
+				});
+			}
+		}
+		check("QuaternionPacked.toRotationMatrix", "ulp", 0.0, r -> {
+			QuaternionArray A = quaternionArray(r, false);
+			float[] a = packed(A), m = new float[M_OFFSET + M_STRIDE*BATCH];
+			QuaternionPacked.toRotationMatrix(m, M_OFFSET, M_STRIDE, a, Q_OFFSET, Q_STRIDE, BATCH);
+			double err = 0.0;
+			for (int i = 0; i < BATCH; i++) {
+				float[] out = new float[9];
+				System.arraycopy(m, M_OFFSET + M_STRIDE*i, out, 0, 9);
+				err = Math.max(err, ulps(out, d(elements(get(A, i).toRotationMatrix()))));
+			}
+			return err;
+		});
+		check("QuaternionPacked.setFromRotationMatrix", "ulp", 0.0, r -> {
+			QuaternionArray A = quaternionArray(r, true);
+			float[] m = new float[M_OFFSET + M_STRIDE*BATCH], c = new float[Q_OFFSET + Q_STRIDE*BATCH];
+			for (int i = 0; i < BATCH; i++) {
+				System.arraycopy(elements(get(A, i).toRotationMatrix()), 0, m, M_OFFSET + M_STRIDE*i, 9);
+			}
+			QuaternionPacked.setFromRotationMatrix(c, Q_OFFSET, Q_STRIDE, m, M_OFFSET, M_STRIDE, BATCH);
+			double err = 0.0;
+			for (int i = 0; i < BATCH; i++) {
+				int k = M_OFFSET + M_STRIDE*i;
+				Quaternion ref = Quaternion.fromRotationMatrix(m[k], m[k + 1], m[k + 2], m[k + 3], m[k + 4], m[k + 5], m[k + 6], m[k + 7], m[k + 8]);
+				err = Math.max(err, ulpsEitherSign(quaternionAt(c, i), ref));
+			}
+			return err;
+		});
+		check("QuaternionPacked.setFromRotationVector", "ulp", 0.0, r -> {
+			Vector3fArray U = vectorArray(r, false);
+			float[] u = packed(U), c = new float[Q_OFFSET + Q_STRIDE*BATCH];
+			QuaternionPacked.setFromRotationVector(c, Q_OFFSET, Q_STRIDE, u, V_OFFSET, V_STRIDE, BATCH);
+			double err = 0.0;
+			for (int i = 0; i < BATCH; i++) {
+				err = Math.max(err, ulps(quaternionAt(c, i), d(Quaternion.fromRotationVector(U.x[i], U.y[i], U.z[i]))));
+			}
+			return err;
+		});
+		check("QuaternionPacked.toRotationVector", "ulp", 0.0, r -> {
+			QuaternionArray A = quaternionArray(r, true);
+			float[] a = packed(A), v = new float[V_OFFSET + V_STRIDE*BATCH];
+			QuaternionPacked.toRotationVector(v, V_OFFSET, V_STRIDE, a, Q_OFFSET, Q_STRIDE, BATCH);
+			double err = 0.0;
+			for (int i = 0; i < BATCH; i++) {
+				err = Math.max(err, ulps(vectorAt(v, i), d(get(A, i).toRotationVector())));
+			}
+			return err;
+		});
+		for (String order : new String[] {"XYZ", "XZY", "YXZ", "YZX", "ZXY", "ZYX"}) {
+			check("QuaternionPacked.setFromEuler" + order, "ulp", 0.0, r -> {
+				float[] e = new float[V_OFFSET + V_STRIDE*BATCH], c = new float[Q_OFFSET + Q_STRIDE*BATCH];
+				for (int i = 0; i < BATCH; i++) {
+					System.arraycopy(euler(r, r.nextInt(4) == 0), 0, e, V_OFFSET + V_STRIDE*i, 3);
+				}
+				packedEuler(order, true, c, e);
+				double err = 0.0;
+				for (int i = 0; i < BATCH; i++) {
+					err = Math.max(err, ulps(quaternionAt(c, i), d(fromEuler(order, vectorAt(e, i)))));
+				}
+				return err;
+			});
+			// angles are not unique near gimbal lock, so compare the rotations they describe
+			// which leaves only the rounding of the double reference
+			check("QuaternionPacked.toEuler" + order, "rad", 1e-12, r -> {
+				QuaternionArray A = new QuaternionArray(BATCH);
+				for (int i = 0; i < BATCH; i++) {
+					A.set(i, fromEuler(order, euler(r, r.nextInt(4) == 0)));
+				}
+				float[] a = packed(A), e = new float[V_OFFSET + V_STRIDE*BATCH];
+				packedEuler(order, false, a, e);
+				double err = 0.0;
+				for (int i = 0; i < BATCH; i++) {
+					err = Math.max(err, angle(eulerReference(order, vectorAt(e, i)), eulerReference(order, toEuler(order, get(A, i)))));
+				}
+				return err;
+			});
+		}
+	}
+
+	private interface ArrayKernel {
+		void apply(QuaternionArray C, QuaternionArray A, QuaternionArray B);
+	}
+	private interface PackedKernel {
+		void apply(float[] c, float[] a, float[] b);
+	}
+	private interface Reference {
+		Quaternion at(int i);
+	}
+
+	// a binary kernel in both layouts, slerps get some antipodal pairs among their inputs
+	private static void bulkCheck(String name, boolean interpolation, Scalar scalar, ArrayKernel array, PackedKernel packed) {
+		check("QuaternionArray." + name, "ulp", 0.0, r -> {
+			QuaternionArray A = quaternionArray(r, interpolation), B = pairs(r, A, interpolation);
+			QuaternionArray C = new QuaternionArray(BATCH);
+			array.apply(C, A, B);
+			return bulkError(C, i -> scalar.apply(get(A, i), get(B, i)));
+		});
+		check("QuaternionPacked." + name, "ulp", 0.0, r -> {
+			QuaternionArray A = quaternionArray(r, interpolation), B = pairs(r, A, interpolation);
+			float[] c = new float[Q_OFFSET + Q_STRIDE*BATCH];
+			packed.apply(c, packed(A), packed(B));
+			double err = 0.0;
+			for (int i = 0; i < BATCH; i++) {
+				err = Math.max(err, ulps(quaternionAt(c, i), d(scalar.apply(get(A, i), get(B, i)))));
+			}
+			return err;
+		});
+	}
+	private static double bulkError(QuaternionArray C, Reference reference) {
+		double err = 0.0;
+		for (int i = 0; i < BATCH; i++) {
+			err = Math.max(err, ulps(get(C, i), d(reference.at(i))));
+		}
+		return err;
+	}
+	private static void packedEuler(String order, boolean from, float[] q, float[] e) {
+		int qo = Q_OFFSET, qs = Q_STRIDE, eo = V_OFFSET, es = V_STRIDE;
+		switch (order + from) {
+			case "XYZtrue": QuaternionPacked.setFromEulerXYZ(q, qo, qs, e, eo, es, BATCH); break;
+			case "XZYtrue": QuaternionPacked.setFromEulerXZY(q, qo, qs, e, eo, es, BATCH); break;
+			case "YXZtrue": QuaternionPacked.setFromEulerYXZ(q, qo, qs, e, eo, es, BATCH); break;
+			case "YZXtrue": QuaternionPacked.setFromEulerYZX(q, qo, qs, e, eo, es, BATCH); break;
+			case "ZXYtrue": QuaternionPacked.setFromEulerZXY(q, qo, qs, e, eo, es, BATCH); break;
+			case "ZYXtrue": QuaternionPacked.setFromEulerZYX(q, qo, qs, e, eo, es, BATCH); break;
+			case "XYZfalse": QuaternionPacked.toEulerXYZ(e, eo, es, q, qo, qs, BATCH); break;
+			case "XZYfalse": QuaternionPacked.toEulerXZY(e, eo, es, q, qo, qs, BATCH); break;
+			case "YXZfalse": QuaternionPacked.toEulerYXZ(e, eo, es, q, qo, qs, BATCH); break;
+			case "YZXfalse": QuaternionPacked.toEulerYZX(e, eo, es, q, qo, qs, BATCH); break;
+			case "ZXYfalse": QuaternionPacked.toEulerZXY(e, eo, es, q, qo, qs, BATCH); break;
+			default: QuaternionPacked.toEulerZYX(e, eo, es, q, qo, qs, BATCH); break;
+		}
+	}
+
+	// bulk inputs and element access
+	private static QuaternionArray quaternionArray(SplittableRandom r, boolean unit) {
+		QuaternionArray A = new QuaternionArray(BATCH);
+		for (int i = 0; i < BATCH; i++) {
+			A.set(i, unit ? unitQuaternion(r) : quaternion(r));
+		}
+		return A;
+	}
+	private static QuaternionArray pairs(SplittableRandom r, QuaternionArray A, boolean interpolation) {
+		QuaternionArray B = quaternionArray(r, interpolation);
+		for (int i = 0; interpolation && i < BATCH; i++) {
+			if (r.nextInt(4) == 0) {
+				B.set(i, perturb(r, get(A, i), 1e-3f).negThis());
+			}
+		}
+		return B;
+	}
+	private static Vector3fArray vectorArray(SplittableRandom r, boolean unit) {
+		Vector3fArray V = new Vector3fArray(BATCH);
+		for (int i = 0; i < BATCH; i++) {
+			float[] v = unit ? unitVector(r) : vector(r);
+			V.set(i, v[0], v[1], v[2]);
+		}
+		return V;
+	}
+	// a unit vector that normalizes to exactly itself, so a kernel that expects unit axes
+	// and a scalar method that normalizes its own see the same axis
+	private static float[] unitVector(SplittableRandom r) {
+		while (true) {
+			float[] v = vector(r);
+			for (int k = 0; k < 4; k++) {
+				float inv = 1f/(float) Math.sqrt(v[0]*v[0] + v[1]*v[1] + v[2]*v[2]);
+				if (inv == 1f) {
+					return v;
+				}
+				v = new float[] {inv*v[0], inv*v[1], inv*v[2]};
+			}
+		}
+	}
+	private static Quaternion get(QuaternionArray A, int i) {
+		return A.get(i, new Quaternion());
+	}
+	private static float[] packed(QuaternionArray A) {
+		float[] a = new float[Q_OFFSET + Q_STRIDE*BATCH];
+		QuaternionPacked.setFromArray(a, Q_OFFSET, Q_STRIDE, A, 0, BATCH);
+		return a;
+	}
+	private static float[] packed(Vector3fArray V) {
+		float[] v = new float[V_OFFSET + V_STRIDE*BATCH];
+		for (int i = 0; i < BATCH; i++) {
+			v[V_OFFSET + V_STRIDE*i] = V.x[i];
+			v[V_OFFSET + V_STRIDE*i + 1] = V.y[i];
+			v[V_OFFSET + V_STRIDE*i + 2] = V.z[i];
+		}
+		return v;
+	}
+	private static float[] quaternionAt(float[] q, int i) {
+		int k = Q_OFFSET + Q_STRIDE*i;
+		return new float[] {q[k], q[k + 1], q[k + 2], q[k + 3]};
+	}
+	private static float[] vectorAt(float[] v, int i) {
+		int k = V_OFFSET + V_STRIDE*i;
+		return new float[] {v[k], v[k + 1], v[k + 2]};
+	}
+	private static float[] elements(Matrix3f m) {
+		return new float[] {m.m00, m.m01, m.m02, m.m10, m.m11, m.m12, m.m20, m.m21, m.m22};
+	}
+	private static int matrixIndex(int i, int row, int column, int columns, boolean columnMajor) {
+		return 3*columns*i + (columnMajor ? 3*column + row : columns*row + column);
+	}
+
+	// random inputs
+	private static Quaternion unitQuaternion(SplittableRandom r) {
+		return Quaternion.fromRandom(r);
+	}
+	private static Quaternion quaternion(SplittableRandom r) {
+		return Quaternion.fromRandom(r).mulThis((float) Math.exp(r.nextDouble(-3.0, 3.0)));
+	}
+	private static float[] vector(SplittableRandom r) {
+		float[] v;
+		do {
+			v = new float[] {(float) r.nextDouble(-4.0, 4.0), (float) r.nextDouble(-4.0, 4.0), (float) r.nextDouble(-4.0, 4.0)};
+		} while (v[0] == 0f && v[1] == 0f && v[2] == 0f);
+		return v;
+	}
+	private static float[] tinyVector(SplittableRandom r) {
+		float[] v = vector(r);
+		float s = (float) Math.pow(10.0, r.nextDouble(-30.0, -2.0));
+		return new float[] {s*v[0], s*v[1], s*v[2]};
+	}
+	private static Quaternion perturb(SplittableRandom r, Quaternion A, float size) {
+		float[] v = vector(r);
+		return new Quaternion(A.w + size*v[0], A.x + size*v[1], A.y + size*v[2], A.z - size*v[0]).unitThis();
+	}
+	private static float[] euler(SplittableRandom r, boolean gimbal) {
+		float a = (float) r.nextDouble(-Math.PI, Math.PI);
+		float c = (float) r.nextDouble(-Math.PI, Math.PI);
+		float b = gimbal
+			? (float) ((r.nextBoolean() ? 0.5 : -0.5)*Math.PI + r.nextDouble(-1e-3, 1e-3))
+			: (float) r.nextDouble(-0.5*Math.PI, 0.5*Math.PI);
+		return new float[] {a, b, c};
+	}
+
+	// checks that need more than a line
+	private static double slerpError(SplittableRandom r, Quaternion A, Quaternion B) {
+		float t = (float) r.nextDouble();
+		return angle(d(new Quaternion().slerp(A, B, t)), slerp(d(A), d(B), t));
+	}
+	private static double slerpNearestError(SplittableRandom r, Quaternion A, Quaternion B, boolean objects) {
+		float t = (float) r.nextDouble();
+		Quaternion Q = objects
+			? new Quaternion().slerpNearest(A, B, t)
+			: new Quaternion().slerpNearest(A.w, A.x, A.y, A.z, B.w, B.x, B.y, B.z, t);
+		// the short way round is from whichever of A and -A is nearer B
+		double[] a = d(A), b = d(B);
+		return angle(d(Q), slerp(dot(a, b) < 0.0 ? scale(a, -1.0) : a, b, t));
+	}
+	private static Quaternion fromEuler(String order, float[] e) {
+		switch (order) {
+			case "XYZ": return Quaternion.fromEulerXYZ(e[0], e[1], e[2]);
+			case "XZY": return Quaternion.fromEulerXZY(e[0], e[1], e[2]);
+			case "YXZ": return Quaternion.fromEulerYXZ(e[0], e[1], e[2]);
+			case "YZX": return Quaternion.fromEulerYZX(e[0], e[1], e[2]);
+			case "ZXY": return Quaternion.fromEulerZXY(e[0], e[1], e[2]);
+			default: return Quaternion.fromEulerZYX(e[0], e[1], e[2]);
+		}
+	}
+	private static float[] toEuler(String order, Quaternion Q) {
+		switch (order) {
+			case "XYZ": return Q.toEulerXYZ();
+			case "XZY": return Q.toEulerXZY();
+			case "YXZ": return Q.toEulerYXZ();
+			case "YZX": return Q.toEulerYZX();
+			case "ZXY": return Q.toEulerZXY();
+			default: return Q.toEulerZYX();
+		}
+	}
+	private static double eulerRoundTrip(String order, float[] e) {
+		// angles are not unique near gimbal lock, so compare the rotations they describe
+		double[] ref = eulerReference(order, e);
+		Quaternion Q = new Quaternion((float) ref[0], (float) ref[1], (float) ref[2], (float) ref[3]);
+		float[] out = toEuler(order, Q);
+		return angle(eulerReference(order, out), d(Q));
+	}
+
+	// hands out r's floats, keeping them for the reference to replay
+	private static final class RecordingRandom implements RandomGenerator {
+		final SplittableRandom r;
+		final List<Float> floats = new ArrayList<>();
+
+		RecordingRandom(SplittableRandom r) {
+			this.r = r;
+		}
+
+		public long nextLong() {
+			return r.nextLong();
+		}
+		public float nextFloat() {
+			float f = r.nextFloat();
+			floats.add(f);
+			return f;
+		}
+	}
+
+	// double precision references
+	private static double[] d(Quaternion Q) {
+		return new double[] {Q.w, Q.x, Q.y, Q.z};
+	}
+	private static double[] d(Vector3f v) {
+		return new double[] {v.x, v.y, v.z};
+	}
+	private static double[] d(float[] a) {
+		double[] b = new double[a.length];
+		for (int i = 0; i < a.length; i++) {
+			b[i] = a[i];
+		}
+		return b;
+	}
+	private static double dot(double[] a, double[] b) {
+		return a[0]*b[0] + a[1]*b[1] + a[2]*b[2] + a[3]*b[3];
+	}
+	private static double[] scale(double[] a, double s) {
+		double[] c = new double[a.length];
+		for (int i = 0; i < a.length; i++) {
+			c[i] = s*a[i];
+		}
+		return c;
+	}
+	private static double[] conj(double[] a) {
+		return new double[] {a[0], -a[1], -a[2], -a[3]};
+	}
+	private static double[] unit(double[] a) {
+		return scale(a, 1.0/Math.sqrt(dot(a, a)));
+	}
+	private static double[] mul(double[] a, double[] b) {
+		return new double[] {
+			a[0]*b[0] - a[1]*b[1] - a[2]*b[2] - a[3]*b[3],
+			a[1]*b[0] + a[0]*b[1] - a[3]*b[2] + a[2]*b[3],
+			a[2]*b[0] + a[3]*b[1] + a[0]*b[2] - a[1]*b[3],
+			a[3]*b[0] - a[2]*b[1] + a[1]*b[2] + a[0]*b[3]
+		};
+	}
+	private static double[] vectorPart(double[] a) {
+		return new double[] {a[1], a[2], a[3]};
+	}
+	private static double[] rotate(double[] unit, double x, double y, double z) {
+		return vectorPart(mul(mul(unit, new double[] {0.0, x, y, z}), conj(unit)));
+	}
+	private static double[] axisAngle(double x, double y, double z, double ang) {
+		double s = Math.sin(0.5*ang);
+		return new double[] {Math.cos(0.5*ang), s*x, s*y, s*z};
+	}
+	private static double[] fromRotationVector(float[] v) {
+		double len = Math.sqrt((double) v[0]*v[0] + (double) v[1]*v[1] + (double) v[2]*v[2]);
+		if (len == 0.0) {
+			return new double[] {1.0, 0.0, 0.0, 0.0};
+		}
+		return axisAngle(v[0]/len, v[1]/len, v[2]/len, len);
+	}
+	private static double[] log(double[] a) {
+		double im = Math.sqrt(a[1]*a[1] + a[2]*a[2] + a[3]*a[3]);
+		double mul = im == 0.0 ? (a[0] > 0.0 ? 1.0/a[0] : 0.0) : Math.atan2(im, a[0])/im;
+		return new double[] {0.5*Math.log(dot(a, a)), mul*a[1], mul*a[2], mul*a[3]};
+	}
+	private static double[] exp(double[] a) {
+		double ang = Math.sqrt(a[1]*a[1] + a[2]*a[2] + a[3]*a[3]);
+		double sinc = ang == 0.0 ? 1.0 : Math.sin(ang)/ang;
+		double len = Math.exp(a[0]);
+		return new double[] {len*Math.cos(ang), len*sinc*a[1], len*sinc*a[2], len*sinc*a[3]};
+	}
+	private static double[] slerp(double[] a, double[] b, double t) {
+		double[] rel = mul(conj(a), b);
+		double[] step = exp(scale(log(rel), t));
+		return mul(a, step);
+	}
+	private static double[] fromRandom(float r0, float r1, float r2, float r3) {
+		if (r0 == 0f && r1 == 0f) {
+			return new double[] {1.0, 0.0, 0.0, 0.0};
+		}
+		double l0 = Math.log(1.0 - r0), l1 = Math.log(1.0 - r1);
+		double m0 = Math.sqrt(l0/(l0 + l1)), m1 = Math.sqrt(l1/(l0 + l1));
+		double a2 = 2.0*Math.PI*r2, a3 = 2.0*Math.PI*r3;
+		return new double[] {m0*Math.cos(a2), m0*Math.sin(a2), m1*Math.cos(a3), m1*Math.sin(a3)};
+	}
+	private static double[] fromRandom(List<Float> floats) {
+		// Marsaglia, replaying the rejections exactly as the float code made them
+		int i = 0;
+		float Aw, Ax, s0;
+		do {
+			Aw = 2f*floats.get(i++) - 1f;
+			Ax = 2f*floats.get(i++) - 1f;
+			s0 = Aw*Aw + Ax*Ax;
+		} while (s0 >= 1f);
+		float Ay, Az, s1;
+		do {
+			Ay = 2f*floats.get(i++) - 1f;
+			Az = 2f*floats.get(i++) - 1f;
+			s1 = Ay*Ay + Az*Az;
+		} while (s1 >= 1f || s1 == 0f);
+		double mul = Math.sqrt((1.0 - ((double) Aw*Aw + (double) Ax*Ax))/((double) Ay*Ay + (double) Az*Az));
+		return new double[] {Aw, Ax, mul*Ay, mul*Az};
+	}
+	private static double[] fromRandomCube(float u0, float u1, float u2) {
+		double m0 = Math.sqrt(1.0 - u0), m1 = Math.sqrt(u0);
+		double a1 = 2.0*Math.PI*u1, a2 = 2.0*Math.PI*u2;
+		return new double[] {m0*Math.cos(a1), m0*Math.sin(a1), m1*Math.cos(a2), m1*Math.sin(a2)};
+	}
+	private static double[] matrix(double[] q) {
+		double w = q[0], x = q[1], y = q[2], z = q[3];
+		return new double[] {
+			w*w + x*x - y*y - z*z, 2.0*(x*y - w*z), 2.0*(w*y + x*z),
+			2.0*(x*y + w*z), w*w - x*x + y*y - z*z, 2.0*(y*z - w*x),
+			2.0*(x*z - w*y), 2.0*(w*x + y*z), w*w - x*x - y*y + z*z
+		};
+	}
+	private static double[] eulerReference(String order, float[] e) {
+		// setFromEulerABC(a, b, c) is rotation(A, a)*rotation(B, b)*rotation(C, c)
+		double[] q = {1.0, 0.0, 0.0, 0.0};
+		for (int i = 0; i < 3; i++) {
+			char axis = order.charAt(i);
+			q = mul(q, axisAngle(axis == 'X' ? 1 : 0, axis == 'Y' ? 1 : 0, axis == 'Z' ? 1 : 0, e[i]));
+		}
+		return q;
+	}
+	private static double[] align(double[] q, float[] a, float[] b) {
+		// (b*Q*a^-1 + len(b*a^-1)*Q)/2
+		double[] va = {0.0, a[0], a[1], a[2]};
+		double[] vb = {0.0, b[0], b[1], b[2]};
+		double aLenSq = dot(va, va);
+		double[] bqa = mul(mul(vb, q), scale(conj(va), 1.0/aLenSq));
+		double len = Math.sqrt(dot(vb, vb)/aLenSq);
+		double[] c = new double[4];
+		for (int i = 0; i < 4; i++) {
+			c[i] = 0.5*(bqa[i] + len*q[i]);
+		}
+		return c;
+	}
+	private static double[] project(double[] q, float[] a) {
+		double aLenSq = (double) a[0]*a[0] + (double) a[1]*a[1] + (double) a[2]*a[2];
+		double t = (q[1]*a[0] + q[2]*a[1] + q[3]*a[2])/aLenSq;
+		return new double[] {q[0], t*a[0], t*a[1], t*a[2]};
+	}
+	private static double[] twist(double[] q, float[] a) {
+		double len = Math.sqrt((double) a[0]*a[0] + (double) a[1]*a[1] + (double) a[2]*a[2]);
+		double p = (q[1]*a[0] + q[2]*a[1] + q[3]*a[2])/len;
+		double[] t = {q[0], p*a[0]/len, p*a[1]/len, p*a[2]/len};
+		return scale(unit(t), q[0] < 0.0 ? -1.0 : 1.0);
+	}
+
+	// error measures
+	private static double ulps(float[] result, double[] ref) {
+		double mag = 0.0;
+		for (double r : ref) {
+			mag += r*r;
+		}
+		double ulp = Math.ulp((float) Math.sqrt(mag));
+		if (ulp == 0.0) {
+			ulp = Float.MIN_VALUE;
+		}
+		double err = 0.0;
+		for (int i = 0; i < ref.length; i++) {
+			err = Math.max(err, Math.abs(result[i] - ref[i]));
+		}
+		return err/ulp;
+	}
+	private static double ulps(Quaternion result, double[] ref) {
+		return ulps(new float[] {result.w, result.x, result.y, result.z}, ref);
+	}
+	private static double ulps(float[] result, Quaternion ref) {
+		return ulps(result, d(ref));
+	}
+	private static double ulpsEitherSign(Quaternion result, Quaternion ref) {
+		// matrices only determine the quaternion up to sign
+		return Math.min(ulps(result, d(ref)), ulps(result, scale(d(ref), -1.0)));
+	}
+	private static double ulpsEitherSign(float[] result, Quaternion ref) {
+		return Math.min(ulps(result, d(ref)), ulps(result, scale(d(ref), -1.0)));
+	}
+	private static double angle(double[] a, double[] b) {
+		// rotation angle between two rotations, insensitive to the sign of either
+		double[] ua = unit(a), ub = unit(b);
+		double dot = Math.abs(dot(ua, ub));
+		double[] rel = mul(conj(ua), ub);
+		double im = Math.sqrt(rel[1]*rel[1] + rel[2]*rel[2] + rel[3]*rel[3]);
+		return 2.0*Math.atan2(im, dot);
+	}
+}
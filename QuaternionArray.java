@@ -0,0 +1,562 @@
+// Structure of arrays storage for many quaternions
+// Every bulk operation mirrors the Quaternion method of the same name
+// and writes its result into this, over the range [offset, offset + count)
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+public final class QuaternionArray {
+	public final float[] w, x, y, z;
+	public final int length;
+
+	// constructors
+	public QuaternionArray(int length) {
+		this.w = new float[length];
+		this.x = new float[length];
+		this.y = new float[length];
+		this.z = new float[length];
+		this.length = length;
+
+		Arrays.fill(w, 1f);
+	}
+
+	public QuaternionArray(float[] w, float[] x, float[] y, float[] z) {
+		if (x.length != w.length || y.length != w.length || z.length != w.length) {
+			throw new IllegalArgumentException("component arrays differ in length");
+		}
+		this.w = w;
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		this.length = w.length;
+	}
+
+	// element access
+	public Quaternion get(int i, Quaternion output) {
+		return output.set(w[i], x[i], y[i], z[i]);
+	}
+	public QuaternionArray set(int i, Quaternion Q) {
+		w[i] = Q.w;
+		x[i] = Q.x;
+		y[i] = Q.y;
+		z[i] = Q.z;
+
+		return this;
+	}
+	public QuaternionArray set(int i, float Qw, float Qx, float Qy, float Qz) {
+		w[i] = Qw;
+		x[i] = Qx;
+		y[i] = Qy;
+		z[i] = Qz;
+
+		return this;
+	}
+	// zeroes every component, e.g. to start a weighted sum
+	// note that this is not the identity the constructor fills in
+	public QuaternionArray clear(int offset, int count) {
+		Arrays.fill(w, offset, offset + count, 0f);
+		Arrays.fill(x, offset, offset + count, 0f);
+		Arrays.fill(y, offset, offset + count, 0f);
+		Arrays.fill(z, offset, offset + count, 0f);
+
+		return this;
+	}
+
+	// splitting a range into chunks that are each owned by one thread
+	static final int CHUNK = 4096;
+
+	static int chunks(int count) {
+		return (count + CHUNK - 1)/CHUNK;
+	}
+
+	//Basic operations
+	public QuaternionArray unit(QuaternionArray A, int offset, int count) {
+		for (int i = offset; i < offset + count; i++) {
+			float Aw = A.w[i], Ax = A.x[i], Ay = A.y[i], Az = A.z[i];
+			float inv = 1f/(float) Math.sqrt(Aw*Aw + Ax*Ax + Ay*Ay + Az*Az);
+			w[i] = inv*Aw;
+			x[i] = inv*Ax;
+			y[i] = inv*Ay;
+			z[i] = inv*Az;
+		}
+
+		return this;
+	}
+	public QuaternionArray mul(QuaternionArray A, QuaternionArray B, int offset, int count) {
+		for (int i = offset; i < offset + count; i++) {
+			float Aw = A.w[i], Ax = A.x[i], Ay = A.y[i], Az = A.z[i];
+			float Bw = B.w[i], Bx = B.x[i], By = B.y[i], Bz = B.z[i];
+			w[i] = Aw*Bw - Ax*Bx - Ay*By - Az*Bz;
+			x[i] = Ax*Bw + Aw*Bx - Az*By + Ay*Bz;
+			y[i] = Ay*Bw + Az*Bx + Aw*By - Ax*Bz;
+			z[i] = Az*Bw - Ay*Bx + Ax*By + Aw*Bz;
+		}
+
+		return this;
+	}
+	public QuaternionArray invMul(QuaternionArray A, QuaternionArray B, int offset, int count) {
+		for (int i = offset; i < offset + count; i++) {
+			float Aw = A.w[i], Ax = A.x[i], Ay = A.y[i], Az = A.z[i];
+			float Bw = B.w[i], Bx = B.x[i], By = B.y[i], Bz = B.z[i];
+			float inv = 1f/(Aw*Aw + Ax*Ax + Ay*Ay + Az*Az);
+			w[i] = inv*(Aw*Bw + Ax*Bx + Ay*By + Az*Bz);
+			x[i] = inv*(Aw*Bx - Ax*Bw - Ay*Bz + Az*By);
+			y[i] = inv*(Aw*By + Ax*Bz - Ay*Bw - Az*Bx);
+			z[i] = inv*(Aw*Bz - Ax*By + Ay*Bx - Az*Bw);
+		}
+
+		return this;
+	}
+
+	// Interpolation
+	public QuaternionArray slerp(QuaternionArray A, QuaternionArray B, float t, int offset, int count) {
+		for (int i = offset; i < offset + count; i++) {
+			slerp(i, A.w[i], A.x[i], A.y[i], A.z[i], B.w[i], B.x[i], B.y[i], B.z[i], t);
+		}
+
+		return this;
+	}
+	public QuaternionArray slerpNearest(QuaternionArray A, QuaternionArray B, float t, int offset, int count) {
+		for (int i = offset; i < offset + count; i++) {
+			float s = A.w[i]*B.w[i] + A.x[i]*B.x[i] + A.y[i]*B.y[i] + A.z[i]*B.z[i] < 0 ? -1f : 1f;
+			slerp(i, s*A.w[i], s*A.x[i], s*A.y[i], s*A.z[i], B.w[i], B.x[i], B.y[i], B.z[i], t);
+		}
+
+		return this;
+	}
+	// see Quaternion.slerp
+	void slerp(
+		int i,
+		float Aw, float Ax, float Ay, float Az,
+		float Bw, float Bx, float By, float Bz,
+		float t
+	) {
+		float Rw = Aw*Bw + Ax*Bx + Ay*By + Az*Bz;
+		float Rx = Aw*Bx - Ax*Bw - Ay*Bz + Az*By;
+		float Ry = Aw*By + Ax*Bz - Ay*Bw - Az*Bx;
+		float Rz = Aw*Bz - Ax*By + Ay*Bx - Az*Bw;
+
+		float theta = (float) Math.atan2(Math.sqrt(Rx*Rx + Ry*Ry + Rz*Rz), Rw);
+		float s0 = (float) Math.sin((1.0f - t)*theta);
+		float s1 = (float) Math.sin(t*theta);
+
+		float Sw = s0*Aw + s1*Bw;
+		float Sx = s0*Ax + s1*Bx;
+		float Sy = s0*Ay + s1*By;
+		float Sz = s0*Az + s1*Bz;
+		float len = (float) Math.sqrt(Sw*Sw + Sx*Sx + Sy*Sy + Sz*Sz);
+
+		if (len > 0f) {
+			float inv = 1f/len;
+			w[i] = inv*Sw;
+			x[i] = inv*Sx;
+			y[i] = inv*Sy;
+			z[i] = inv*Sz;
+		} else if (t < 0.5f) {
+			w[i] = Aw;
+			x[i] = Ax;
+			y[i] = Ay;
+			z[i] = Az;
+		} else {
+			w[i] = Bw;
+			x[i] = Bx;
+			y[i] = By;
+			z[i] = Bz;
+		}
+	}
+
+//Quaternion Vector
+	public Vector3fArray sandwich(Vector3fArray vectors, Vector3fArray output, int offset, int count) {
+		for (int i = offset; i < offset + count; i++) {
+			float Qw = w[i], Qx = x[i], Qy = y[i], Qz = z[i];
+			float vx = vectors.x[i], vy = vectors.y[i], vz = vectors.z[i];
+			float inv = 1f/(Qw*Qw + Qx*Qx + Qy*Qy + Qz*Qz);
+
+			float bw = inv*(vx*Qx + vy*Qy + vz*Qz);
+			float bx = inv*(vx*Qw + vz*Qy - vy*Qz);
+			float by = inv*(vy*Qw - vz*Qx + vx*Qz);
+			float bz = inv*(vz*Qw + vy*Qx - vx*Qy);
+
+			output.x[i] = Qw*bx + Qx*bw + Qy*bz - Qz*by;
+			output.y[i] = Qw*by - Qx*bz + Qy*bw + Qz*bx;
+			output.z[i] = Qw*bz + Qx*by - Qy*bx + Qz*bw;
+		}
+
+		return output;
+	}
+
+	// Exponential and logarithm, see Quaternion.log and Quaternion.exp
+	public QuaternionArray log(QuaternionArray A, int offset, int count) {
+		for (int i = offset; i < offset + count; i++) {
+			float Aw = A.w[i], Ax = A.x[i], Ay = A.y[i], Az = A.z[i];
+			float imSq = Ax*Ax + Ay*Ay + Az*Az;
+			float lenSq = Aw*Aw + imSq;
+
+			float mul;
+			float pick = 0f;
+			if (imSq < 1e-2f*Aw*Aw && Aw > 0f) {
+				float rSq = imSq/(Aw*Aw);
+				mul = (1f - rSq*(1f/3f) + rSq*rSq*(1f/5f))/Aw;
+			} else if (imSq == 0f) {
+				mul = 0f;
+				pick = (float) Math.PI; // negative real, arbitrary axis
+			} else {
+				float im = (float) Math.sqrt(imSq);
+				mul = (float) Math.atan2(im, Aw)/im;
+			}
+
+			w[i] = 0.5f*(float) Math.log(lenSq);
+			x[i] = mul*Ax + pick;
+			y[i] = mul*Ay;
+			z[i] = mul*Az;
+		}
+
+		return this;
+	}
+	public QuaternionArray exp(QuaternionArray A, int offset, int count) {
+		for (int i = offset; i < offset + count; i++) {
+			float Aw = A.w[i], Ax = A.x[i], Ay = A.y[i], Az = A.z[i];
+			float angSq = Ax*Ax + Ay*Ay + Az*Az;
+			float len = (float) Math.exp(Aw);
+
+			float cos, sinc;
+			if (angSq < 1e-2f) {
+				cos = 1f - angSq*(1f/2f) + angSq*angSq*(1f/24f);
+				sinc = 1f - angSq*(1f/6f) + angSq*angSq*(1f/120f);
+			} else {
+				float ang = (float) Math.sqrt(angSq);
+				cos = (float) Math.cos(ang);
+				sinc = (float) Math.sin(ang)/ang;
+			}
+
+			w[i] = len*cos;
+			x[i] = len*sinc*Ax;
+			y[i] = len*sinc*Ay;
+			z[i] = len*sinc*Az;
+		}
+
+		return this;
+	}
+	public QuaternionArray pow(QuaternionArray A, float t, int offset, int count) {
+		this.log(A, offset, count);
+		for (int i = offset; i < offset + count; i++) {
+			w[i] *= t;
+			x[i] *= t;
+			y[i] *= t;
+			z[i] *= t;
+		}
+		return this.exp(this, offset, count);
+	}
+
+	//Projections
+	// axes must be unit length here, unlike Quaternion.toSwingTwist
+	public void toSwingTwist(
+		Vector3fArray axes,
+		QuaternionArray swingOutput, QuaternionArray twistOutput, float[] twistAngleOutput,
+		int offset, int count
+	) {
+		for (int i = offset; i < offset + count; i++) {
+			float Qw = w[i], Qx = x[i], Qy = y[i], Qz = z[i];
+			float nx = axes.x[i], ny = axes.y[i], nz = axes.z[i];
+
+			float sign = Qw < 0f ? -1f : 1f;
+			float Tw = sign*Qw;
+			float p = sign*(Qx*nx + Qy*ny + Qz*nz);
+			float len = (float) Math.sqrt(Tw*Tw + p*p);
+			float inv = len == 0f ? 0f : 1f/len;
+
+			// see Quaternion.toSwingTwist, len == 0 falls through to swing = Q, twist = 1
+			swingOutput.w[i] = len == 0f ? Qw : sign*len;
+			swingOutput.x[i] = len == 0f ? Qx : inv*(Tw*Qx - Qw*p*nx - p*(Qy*nz - Qz*ny));
+			swingOutput.y[i] = len == 0f ? Qy : inv*(Tw*Qy - Qw*p*ny - p*(Qz*nx - Qx*nz));
+			swingOutput.z[i] = len == 0f ? Qz : inv*(Tw*Qz - Qw*p*nz - p*(Qx*ny - Qy*nx));
+			twistOutput.w[i] = len == 0f ? 1f : inv*Tw;
+			twistOutput.x[i] = inv*p*nx;
+			twistOutput.y[i] = inv*p*ny;
+			twistOutput.z[i] = inv*p*nz;
+			twistAngleOutput[i] = 2f*(float) Math.atan2(p, Tw);
+		}
+	}
+	// clamps every rotation in place to a cone of maxSwing about its axis
+	// and to a twist about its axis between minTwist and maxTwist
+	// angles are in radians, the twist limits within [-pi, pi], axes must be unit length
+	public QuaternionArray limitSwingTwist(
+		Vector3fArray axes, float[] maxSwing, float[] minTwist, float[] maxTwist,
+		int offset, int count
+	) {
+		for (int i = offset; i < offset + count; i++) {
+			float Qw = w[i], Qx = x[i], Qy = y[i], Qz = z[i];
+			float nx = axes.x[i], ny = axes.y[i], nz = axes.z[i];
+
+			// decompose into swing and twist, both with non-negative w
+			float sign = Qw < 0f ? -1f : 1f;
+			float Tw = sign*Qw;
+			float Tp = sign*(Qx*nx + Qy*ny + Qz*nz);
+			float len = (float) Math.sqrt(Tw*Tw + Tp*Tp);
+			float Sw, Sx, Sy, Sz;
+			if (len == 0f) {
+				Sw = 0f;
+				Sx = Qx;
+				Sy = Qy;
+				Sz = Qz;
+				Tw = 1f;
+			} else {
+				float inv = 1f/len;
+				Sw = len;
+				Sx = sign*inv*(Tw*Qx - Qw*Tp*nx - Tp*(Qy*nz - Qz*ny));
+				Sy = sign*inv*(Tw*Qy - Qw*Tp*ny - Tp*(Qz*nx - Qx*nz));
+				Sz = sign*inv*(Tw*Qz - Qw*Tp*nz - Tp*(Qx*ny - Qy*nx));
+				Tw *= inv;
+				Tp *= inv;
+			}
+
+			// cone limit
+			float sLen = (float) Math.sqrt(Sx*Sx + Sy*Sy + Sz*Sz);
+			float swing = 2f*(float) Math.atan2(sLen, Sw);
+			if (swing > maxSwing[i]) {
+				float mul = (float) Math.sin(0.5f*maxSwing[i])/sLen;
+				Sw = (float) Math.cos(0.5f*maxSwing[i]);
+				Sx *= mul;
+				Sy *= mul;
+				Sz *= mul;
+			}
+
+			// twist limit
+			float twist = 2f*(float) Math.atan2(Tp, Tw);
+			if (twist < minTwist[i] || twist > maxTwist[i]) {
+				twist = twist < minTwist[i] ? minTwist[i] : maxTwist[i];
+				Tw = (float) Math.cos(0.5f*twist);
+				Tp = (float) Math.sin(0.5f*twist);
+			}
+
+			// swing*twist, using that the swing axis is perpendicular to the twist axis
+			// sign keeps the result on the same side as the input
+			w[i] = sign*(Sw*Tw);
+			x[i] = sign*(Tw*Sx + Tp*(Sw*nx + Sy*nz - Sz*ny));
+			y[i] = sign*(Tw*Sy + Tp*(Sw*ny + Sz*nx - Sx*nz));
+			z[i] = sign*(Tw*Sz + Tp*(Sw*nz + Sx*ny - Sy*nx));
+		}
+
+		return this;
+	}
+
+// conversion from
+	public QuaternionArray setFromRandom(RandomGenerator random, int offset, int count) {
+		for (int i = offset; i < offset + count; i++) {
+			// Marsaglia, see Quaternion.setFromRandom(RandomGenerator)
+			float Aw, Ax, s0;
+			do {
+				Aw = 2f*random.nextFloat() - 1f;
+				Ax = 2f*random.nextFloat() - 1f;
+				s0 = Aw*Aw + Ax*Ax;
+			} while (s0 >= 1f);
+			float Ay, Az, s1;
+			do {
+				Ay = 2f*random.nextFloat() - 1f;
+				Az = 2f*random.nextFloat() - 1f;
+				s1 = Ay*Ay + Az*Az;
+			} while (s1 >= 1f || s1 == 0f);
+			float mul = (float) Math.sqrt((1f - s0)/s1);
+
+			w[i] = Aw;
+			x[i] = Ax;
+			y[i] = mul*Ay;
+			z[i] = mul*Az;
+		}
+
+		return this;
+	}
+	public QuaternionArray setFromRandomParallel(SplittableRandom random, int offset, int count) {
+		// split every chunk's generator up front, in order
+		// so the result does not depend on how the chunks get scheduled
+		int n = chunks(count);
+		SplittableRandom[] randoms = new SplittableRandom[n];
+		for (int c = 0; c < n; c++) {
+			randoms[c] = random.split();
+		}
+
+		IntStream.range(0, n).parallel().forEach(c -> {
+			int start = offset + c*CHUNK;
+			setFromRandom(randoms[c], start, Math.min(CHUNK, offset + count - start));
+		});
+
+		return this;
+	}
+
+	// 1/g, 1/g^2, 1/g^3 where g^4 = g + 1
+	private static final double R3_0 = 0.8191725133961645;
+	private static final double R3_1 = 0.6710436067037893;
+	private static final double R3_2 = 0.5497004779019703;
+	public QuaternionArray setFromLowDiscrepancy(long index, int offset, int count) {
+		// the R3 additive recurrence covers the unit cube more evenly than random points
+		// Shoemake's map carries that coverage over to the rotations
+		// element i receives sample index + (i - offset), so a sequence can be continued across calls
+		for (int i = offset; i < offset + count; i++) {
+			double n = (double) (index + i - offset);
+			double u0 = 0.5 + n*R3_0;
+			double u1 = 0.5 + n*R3_1;
+			double u2 = 0.5 + n*R3_2;
+			u0 -= Math.floor(u0);
+			u1 -= Math.floor(u1);
+			u2 -= Math.floor(u2);
+
+			float m0 = (float) Math.sqrt(1.0 - u0);
+			float m1 = (float) Math.sqrt(u0);
+
+			w[i] = m0*(float) Math.cos(2.0*Math.PI*u1);
+			x[i] = m0*(float) Math.sin(2.0*Math.PI*u1);
+			y[i] = m1*(float) Math.cos(2.0*Math.PI*u2);
+			z[i] = m1*(float) Math.sin(2.0*Math.PI*u2);
+		}
+
+		return this;
+	}
+
+	public QuaternionArray setFromRotationMatrix(FloatBuffer input, boolean columnMajor, int offset, int count) {
+		return this.setFromMatrix(input, 3, columnMajor, null, offset, count);
+	}
+	// translation may be null, the matrices' translations are then skipped
+	public QuaternionArray setFromTransformMatrix(FloatBuffer input, boolean columnMajor, Vector3fArray translation, int offset, int count) {
+		return this.setFromMatrix(input, 4, columnMajor, translation, offset, count);
+	}
+	// the unit quaternion of a rotation matrix, written to W[iw], X[ix], Y[iy] and Z[iz]
+	// shared with QuaternionPacked, which passes one array for all four
+	static void setFromRotationMatrix(
+		float xx, float yx, float zx,
+		float xy, float yy, float zy,
+		float xz, float yz, float zz,
+		float[] W, int iw, float[] X, int ix, float[] Y, int iy, float[] Z, int iz
+	) {
+		// each row of this symmetric matrix is proportional to the quaternion
+		// see Quaternion.setFromRotationMatrix
+		float d0 = 1 + xx + yy + zz;
+		float d1 = 1 + xx - yy - zz;
+		float d2 = 1 - xx + yy - zz;
+		float d3 = 1 - xx - yy + zz;
+		float m01 = yz - zy;
+		float m02 = zx - xz;
+		float m03 = xy - yx;
+		float m12 = xy + yx;
+		float m13 = xz + zx;
+		float m23 = yz + zy;
+
+		// take the row with the largest diagonal using selects rather than an if chain
+		// so that arbitrary input does not cause branch mispredictions
+		boolean wOverX = d0 > d1;
+		boolean yOverZ = d2 > d3;
+		boolean top = (wOverX ? d0 : d1) > (yOverZ ? d2 : d3);
+		float Qw = top ? (wOverX ? d0 : m01) : (yOverZ ? m02 : m03);
+		float Qx = top ? (wOverX ? m01 : d1) : (yOverZ ? m12 : m13);
+		float Qy = top ? (wOverX ? m02 : m12) : (yOverZ ? d2 : m23);
+		float Qz = top ? (wOverX ? m03 : m13) : (yOverZ ? m23 : d3);
+
+		float inv = 1/(float) Math.sqrt(Qw*Qw + Qx*Qx + Qy*Qy + Qz*Qz);
+		W[iw] = inv*Qw;
+		X[ix] = inv*Qx;
+		Y[iy] = inv*Qy;
+		Z[iz] = inv*Qz;
+	}
+	// reads 3 by 3 or 3 by 4 matrices packed one after another, starting at the buffer's position
+	private QuaternionArray setFromMatrix(
+		FloatBuffer input, int columns, boolean columnMajor,
+		Vector3fArray translation, int offset, int count
+	) {
+		int size = 3*columns;
+		int rs = columnMajor ? 1 : columns; // row stride
+		int cs = columnMajor ? 3 : 1; // column stride
+		int base = input.position();
+		for (int i = offset; i < offset + count; i++, base += size) {
+			float xx = input.get(base);
+			float yx = input.get(base + cs);
+			float zx = input.get(base + 2*cs);
+			float xy = input.get(base + rs);
+			float yy = input.get(base + rs + cs);
+			float zy = input.get(base + rs + 2*cs);
+			float xz = input.get(base + 2*rs);
+			float yz = input.get(base + 2*rs + cs);
+			float zz = input.get(base + 2*rs + 2*cs);
+
+			setFromRotationMatrix(
+				xx, yx, zx,
+				xy, yy, zy,
+				xz, yz, zz,
+				w, i, x, i, y, i, z, i
+			);
+
+			if (translation != null) {
+				translation.x[i] = input.get(base + 3*cs);
+				translation.y[i] = input.get(base + rs + 3*cs);
+				translation.z[i] = input.get(base + 2*rs + 3*cs);
+			}
+		}
+		input.position(base);
+
+		return this;
+	}
+
+// conversion to
+	public FloatBuffer toRotationMatrix(FloatBuffer output, boolean columnMajor, int offset, int count) {
+		return this.toMatrix(output, 3, columnMajor, null, offset, count);
+	}
+	// translation may be null, the matrices then get zero translations
+	public FloatBuffer toTransformMatrix(FloatBuffer output, boolean columnMajor, Vector3fArray translation, int offset, int count) {
+		return this.toMatrix(output, 4, columnMajor, translation, offset, count);
+	}
+	// writes 3 by 3 or 3 by 4 matrices packed one after another, starting at the buffer's position
+	private FloatBuffer toMatrix(
+		FloatBuffer output, int columns, boolean columnMajor,
+		Vector3fArray translation, int offset, int count
+	) {
+		int size = 3*columns;
+		int rs = columnMajor ? 1 : columns; // row stride
+		int cs = columnMajor ? 3 : 1; // column stride
+		int base = output.position();
+		for (int i = offset; i < offset + count; i++, base += size) {
+			float Qw = w[i], Qx = x[i], Qy = y[i], Qz = z[i];
+			float inv = 1f/(Qw*Qw + Qx*Qx + Qy*Qy + Qz*Qz);
+
+			output.put(base,                 inv*(Qw*Qw + Qx*Qx - Qy*Qy - Qz*Qz));
+			output.put(base + cs,            inv*2f*(Qx*Qy - Qw*Qz));
+			output.put(base + 2*cs,          inv*2f*(Qw*Qy + Qx*Qz));
+			output.put(base + rs,            inv*2f*(Qx*Qy + Qw*Qz));
+			output.put(base + rs + cs,       inv*(Qw*Qw - Qx*Qx + Qy*Qy - Qz*Qz));
+			output.put(base + rs + 2*cs,     inv*2f*(Qy*Qz - Qw*Qx));
+			output.put(base + 2*rs,          inv*2f*(Qx*Qz - Qw*Qy));
+			output.put(base + 2*rs + cs,     inv*2f*(Qw*Qx + Qy*Qz));
+			output.put(base + 2*rs + 2*cs,   inv*(Qw*Qw - Qx*Qx - Qy*Qy + Qz*Qz));
+
+			if (columns == 4) {
+				output.put(base + 3*cs,          translation == null ? 0f : translation.x[i]);
+				output.put(base + rs + 3*cs,     translation == null ? 0f : translation.y[i]);
+				output.put(base + 2*rs + 3*cs,   translation == null ? 0f : translation.z[i]);
+			}
+		}
+		output.position(base);
+
+		return output;
+	}
+
+	//	whole array shorthand
+	public QuaternionArray unit(QuaternionArray A) {return this.unit(A, 0, length);}
+	public QuaternionArray mul(QuaternionArray A, QuaternionArray B) {return this.mul(A, B, 0, length);}
+	public QuaternionArray invMul(QuaternionArray A, QuaternionArray B) {return this.invMul(A, B, 0, length);}
+	public QuaternionArray slerp(QuaternionArray A, QuaternionArray B, float t) {return this.slerp(A, B, t, 0, length);}
+	public QuaternionArray slerpNearest(QuaternionArray A, QuaternionArray B, float t) {return this.slerpNearest(A, B, t, 0, length);}
+	public Vector3fArray sandwich(Vector3fArray vectors, Vector3fArray output) {return this.sandwich(vectors, output, 0, length);}
+	public QuaternionArray log(QuaternionArray A) {return this.log(A, 0, length);}
+	public QuaternionArray exp(QuaternionArray A) {return this.exp(A, 0, length);}
+	public QuaternionArray pow(QuaternionArray A, float t) {return this.pow(A, t, 0, length);}
+	public QuaternionArray clear() {return this.clear(0, length);}
+	public QuaternionArray setFromRandom(RandomGenerator random) {return this.setFromRandom(random, 0, length);}
+	public QuaternionArray setFromRandomParallel(SplittableRandom random) {return this.setFromRandomParallel(random, 0, length);}
+	public QuaternionArray setFromLowDiscrepancy(long index) {return this.setFromLowDiscrepancy(index, 0, length);}
+	public QuaternionArray setFromRotationMatrix(FloatBuffer input, boolean columnMajor) {return this.setFromRotationMatrix(input, columnMajor, 0, length);}
+	public QuaternionArray setFromTransformMatrix(FloatBuffer input, boolean columnMajor, Vector3fArray translation) {return this.setFromTransformMatrix(input, columnMajor, translation, 0, length);}
+	public FloatBuffer toRotationMatrix(FloatBuffer output, boolean columnMajor) {return this.toRotationMatrix(output, columnMajor, 0, length);}
+	public FloatBuffer toTransformMatrix(FloatBuffer output, boolean columnMajor, Vector3fArray translation) {return this.toTransformMatrix(output, columnMajor, translation, 0, length);}
+	public void toSwingTwist(Vector3fArray axes, QuaternionArray swingOutput, QuaternionArray twistOutput, float[] twistAngleOutput) {this.toSwingTwist(axes, swingOutput, twistOutput, twistAngleOutput, 0, length);}
+	public QuaternionArray limitSwingTwist(Vector3fArray axes, float[] maxSwing, float[] minTwist, float[] maxTwist) {return this.limitSwingTwist(axes, maxSwing, minTwist, maxTwist, 0, length);}
+}
@@ -0,0 +1,542 @@
+// Kernels for quaternions stored interleaved in float arrays, as [w, x, y, z, w, x, y, z, ...]
+// Element i of an array is at offset + i*stride, stride 4 for tightly packed data
+// and larger for records that carry other data alongside
+// Vectors are [x, y, z], Euler angles 3 floats in the order named, and matrices 9 floats,
+// row major, all addressed the same way
+// Outputs may be the same array, offset and stride as an input, so data can be updated in place
+// Every kernel mirrors the Quaternion method of the same name
+
+public final class QuaternionPacked {
+	private QuaternionPacked() {}
+
+	//Basic operations
+	public static void unit(
+		float[] C, int cOffset, int cStride,
+		float[] A, int aOffset, int aStride,
+		int count
+	) {
+		for (int i = 0, c = cOffset, a = aOffset; i < count; i++, c += cStride, a += aStride) {
+			float Aw = A[a], Ax = A[a + 1], Ay = A[a + 2], Az = A[a + 3];
+			float inv = 1f/(float) Math.sqrt(Aw*Aw + Ax*Ax + Ay*Ay + Az*Az);
+			C[c] = inv*Aw;
+			C[c + 1] = inv*Ax;
+			C[c + 2] = inv*Ay;
+			C[c + 3] = inv*Az;
+		}
+	}
+	public static void mul(
+		float[] C, int cOffset, int cStride,
+		float[] A, int aOffset, int aStride,
+		float[] B, int bOffset, int bStride,
+		int count
+	) {
+		for (int i = 0, c = cOffset, a = aOffset, b = bOffset; i < count; i++, c += cStride, a += aStride, b += bStride) {
+			float Aw = A[a], Ax = A[a + 1], Ay = A[a + 2], Az = A[a + 3];
+			float Bw = B[b], Bx = B[b + 1], By = B[b + 2], Bz = B[b + 3];
+			C[c] = Aw*Bw - Ax*Bx - Ay*By - Az*Bz;
+			C[c + 1] = Ax*Bw + Aw*Bx - Az*By + Ay*Bz;
+			C[c + 2] = Ay*Bw + Az*Bx + Aw*By - Ax*Bz;
+			C[c + 3] = Az*Bw - Ay*Bx + Ax*By + Aw*Bz;
+		}
+	}
+	public static void invMul(
+		float[] C, int cOffset, int cStride,
+		float[] A, int aOffset, int aStride,
+		float[] B, int bOffset, int bStride,
+		int count
+	) {
+		for (int i = 0, c = cOffset, a = aOffset, b = bOffset; i < count; i++, c += cStride, a += aStride, b += bStride) {
+			float Aw = A[a], Ax = A[a + 1], Ay = A[a + 2], Az = A[a + 3];
+			float Bw = B[b], Bx = B[b + 1], By = B[b + 2], Bz = B[b + 3];
+			float inv = 1f/(Aw*Aw + Ax*Ax + Ay*Ay + Az*Az);
+			C[c] = inv*(Aw*Bw + Ax*Bx + Ay*By + Az*Bz);
+			C[c + 1] = inv*(Aw*Bx - Ax*Bw - Ay*Bz + Az*By);
+			C[c + 2] = inv*(Aw*By + Ax*Bz - Ay*Bw - Az*Bx);
+			C[c + 3] = inv*(Aw*Bz - Ax*By + Ay*Bx - Az*Bw);
+		}
+	}
+
+	// Interpolation
+	public static void slerp(
+		float[] C, int cOffset, int cStride,
+		float[] A, int aOffset, int aStride,
+		float[] B, int bOffset, int bStride,
+		float t, int count
+	) {
+		slerp(C, cOffset, cStride, A, aOffset, aStride, B, bOffset, bStride, t, count, false);
+	}
+	public static void slerpNearest(
+		float[] C, int cOffset, int cStride,
+		float[] A, int aOffset, int aStride,
+		float[] B, int bOffset, int bStride,
+		float t, int count
+	) {
+		slerp(C, cOffset, cStride, A, aOffset, aStride, B, bOffset, bStride, t, count, true);
+	}
+	private static void slerp(
+		float[] C, int cOffset, int cStride,
+		float[] A, int aOffset, int aStride,
+		float[] B, int bOffset, int bStride,
+		float t, int count, boolean nearest
+	) {
+		for (int i = 0, c = cOffset, a = aOffset, b = bOffset; i < count; i++, c += cStride, a += aStride, b += bStride) {
+			float Aw = A[a], Ax = A[a + 1], Ay = A[a + 2], Az = A[a + 3];
+			float Bw = B[b], Bx = B[b + 1], By = B[b + 2], Bz = B[b + 3];
+			if (nearest && Aw*Bw + Ax*Bx + Ay*By + Az*Bz < 0) {
+				Aw = -Aw;
+				Ax = -Ax;
+				Ay = -Ay;
+				Az = -Az;
+			}
+
+			// see Quaternion.slerp
+			float Rw = Aw*Bw + Ax*Bx + Ay*By + Az*Bz;
+			float Rx = Aw*Bx - Ax*Bw - Ay*Bz + Az*By;
+			float Ry = Aw*By + Ax*Bz - Ay*Bw - Az*Bx;
+			float Rz = Aw*Bz - Ax*By + Ay*Bx - Az*Bw;
+
+			float theta = (float) Math.atan2(Math.sqrt(Rx*Rx + Ry*Ry + Rz*Rz), Rw);
+			float s0 = (float) Math.sin((1.0f - t)*theta);
+			float s1 = (float) Math.sin(t*theta);
+
+			float Sw = s0*Aw + s1*Bw;
+			float Sx = s0*Ax + s1*Bx;
+			float Sy = s0*Ay + s1*By;
+			float Sz = s0*Az + s1*Bz;
+			float len = (float) Math.sqrt(Sw*Sw + Sx*Sx + Sy*Sy + Sz*Sz);
+
+			if (len > 0f) {
+				float inv = 1f/len;
+				C[c] = inv*Sw;
+				C[c + 1] = inv*Sx;
+				C[c + 2] = inv*Sy;
+				C[c + 3] = inv*Sz;
+			} else if (t < 0.5f) {
+				C[c] = Aw;
+				C[c + 1] = Ax;
+				C[c + 2] = Ay;
+				C[c + 3] = Az;
+			} else {
+				C[c] = Bw;
+				C[c + 1] = Bx;
+				C[c + 2] = By;
+				C[c + 3] = Bz;
+			}
+		}
+	}
+
+//Quaternion Vector
+	public static void sandwich(
+		float[] V, int vOffset, int vStride,
+		float[] Q, int qOffset, int qStride,
+		float[] U, int uOffset, int uStride,
+		int count
+	) {
+		for (int i = 0, v = vOffset, q = qOffset, u = uOffset; i < count; i++, v += vStride, q += qStride, u += uStride) {
+			float w = Q[q], x = Q[q + 1], y = Q[q + 2], z = Q[q + 3];
+			float vx = U[u], vy = U[u + 1], vz = U[u + 2];
+			float inv = 1f/(w*w + x*x + y*y + z*z);
+
+			float bw = inv*(vx*x + vy*y + vz*z);
+			float bx = inv*(vx*w + vz*y - vy*z);
+			float by = inv*(vy*w - vz*x + vx*z);
+			float bz = inv*(vz*w + vy*x - vx*y);
+
+			V[v] = w*bx + x*bw + y*bz - z*by;
+			V[v + 1] = w*by - x*bz + y*bw + z*bx;
+			V[v + 2] = w*bz + x*by - y*bx + z*bw;
+		}
+	}
+
+// conversion from
+	public static void setFromRotationMatrix(
+		float[] Q, int qOffset, int qStride,
+		float[] M, int mOffset, int mStride,
+		int count
+	) {
+		for (int i = 0, q = qOffset, m = mOffset; i < count; i++, q += qStride, m += mStride) {
+			QuaternionArray.setFromRotationMatrix(
+				M[m], M[m + 1], M[m + 2],
+				M[m + 3], M[m + 4], M[m + 5],
+				M[m + 6], M[m + 7], M[m + 8],
+				Q, q, Q, q + 1, Q, q + 2, Q, q + 3
+			);
+		}
+	}
+	public static void setFromRotationVector(
+		float[] Q, int qOffset, int qStride,
+		float[] V, int vOffset, int vStride,
+		int count
+	) {
+		for (int i = 0, q = qOffset, v = vOffset; i < count; i++, q += qStride, v += vStride) {
+			float rx = V[v], ry = V[v + 1], rz = V[v + 2];
+			float len = (float) Math.sqrt(rx*rx + ry*ry + rz*rz);
+			float sin = (float) Math.sin(0.5f*len);
+			float inv = len == 0f ? 0f : 1f/len;
+			Q[q] = (float) Math.cos(0.5f*len);
+			Q[q + 1] = sin*inv*rx;
+			Q[q + 2] = sin*inv*ry;
+			Q[q + 3] = sin*inv*rz;
+		}
+	}
+	public static void setFromEulerXYZ(
+		float[] Q, int qOffset, int qStride,
+		float[] E, int eOffset, int eStride,
+		int count
+	) {
+		for (int i = 0, q = qOffset, e = eOffset; i < count; i++, q += qStride, e += eStride) {
+			float halfX = 0.5f*E[e], halfY = 0.5f*E[e + 1], halfZ = 0.5f*E[e + 2];
+			float cosX = (float) Math.cos(halfX);
+			float cosY = (float) Math.cos(halfY);
+			float cosZ = (float) Math.cos(halfZ);
+			float sinX = (float) Math.sin(halfX);
+			float sinY = (float) Math.sin(halfY);
+			float sinZ = (float) Math.sin(halfZ);
+
+			Q[q] = cosX*cosY*cosZ - sinX*sinY*sinZ;
+			Q[q + 1] = cosY*cosZ*sinX + cosX*sinY*sinZ;
+			Q[q + 2] = cosX*cosZ*sinY - cosY*sinX*sinZ;
+			Q[q + 3] = cosZ*sinX*sinY + cosX*cosY*sinZ;
+		}
+	}
+	public static void setFromEulerXZY(
+		float[] Q, int qOffset, int qStride,
+		float[] E, int eOffset, int eStride,
+		int count
+	) {
+		for (int i = 0, q = qOffset, e = eOffset; i < count; i++, q += qStride, e += eStride) {
+			float halfX = 0.5f*E[e], halfZ = 0.5f*E[e + 1], halfY = 0.5f*E[e + 2];
+			float cosX = (float) Math.cos(halfX);
+			float cosY = (float) Math.cos(halfY);
+			float cosZ = (float) Math.cos(halfZ);
+			float sinX = (float) Math.sin(halfX);
+			float sinY = (float) Math.sin(halfY);
+			float sinZ = (float) Math.sin(halfZ);
+
+			Q[q] = cosX*cosY*cosZ + sinX*sinY*sinZ;
+			Q[q + 1] = cosY*cosZ*sinX - cosX*sinY*sinZ;
+			Q[q + 2] = cosX*cosZ*sinY - cosY*sinX*sinZ;
+			Q[q + 3] = cosZ*sinX*sinY + cosX*cosY*sinZ;
+		}
+	}
+	public static void setFromEulerYXZ(
+		float[] Q, int qOffset, int qStride,
+		float[] E, int eOffset, int eStride,
+		int count
+	) {
+		for (int i = 0, q = qOffset, e = eOffset; i < count; i++, q += qStride, e += eStride) {
+			float halfY = 0.5f*E[e], halfX = 0.5f*E[e + 1], halfZ = 0.5f*E[e + 2];
+			float cosX = (float) Math.cos(halfX);
+			float cosY = (float) Math.cos(halfY);
+			float cosZ = (float) Math.cos(halfZ);
+			float sinX = (float) Math.sin(halfX);
+			float sinY = (float) Math.sin(halfY);
+			float sinZ = (float) Math.sin(halfZ);
+
+			Q[q] = cosX*cosY*cosZ + sinX*sinY*sinZ;
+			Q[q + 1] = cosY*cosZ*sinX + cosX*sinY*sinZ;
+			Q[q + 2] = cosX*cosZ*sinY - cosY*sinX*sinZ;
+			Q[q + 3] = cosX*cosY*sinZ - cosZ*sinX*sinY;
+		}
+	}
+	public static void setFromEulerYZX(
+		float[] Q, int qOffset, int qStride,
+		float[] E, int eOffset, int eStride,
+		int count
+	) {
+		for (int i = 0, q = qOffset, e = eOffset; i < count; i++, q += qStride, e += eStride) {
+			float halfY = 0.5f*E[e], halfZ = 0.5f*E[e + 1], halfX = 0.5f*E[e + 2];
+			float cosX = (float) Math.cos(halfX);
+			float cosY = (float) Math.cos(halfY);
+			float cosZ = (float) Math.cos(halfZ);
+			float sinX = (float) Math.sin(halfX);
+			float sinY = (float) Math.sin(halfY);
+			float sinZ = (float) Math.sin(halfZ);
+
+			Q[q] = cosX*cosY*cosZ - sinX*sinY*sinZ;
+			Q[q + 1] = cosY*cosZ*sinX + cosX*sinY*sinZ;
+			Q[q + 2] = cosX*cosZ*sinY + cosY*sinX*sinZ;
+			Q[q + 3] = cosX*cosY*sinZ - cosZ*sinX*sinY;
+		}
+	}
+	public static void setFromEulerZXY(
+		float[] Q, int qOffset, int qStride,
+		float[] E, int eOffset, int eStride,
+		int count
+	) {
+		for (int i = 0, q = qOffset, e = eOffset; i < count; i++, q += qStride, e += eStride) {
+			float halfZ = 0.5f*E[e], halfX = 0.5f*E[e + 1], halfY = 0.5f*E[e + 2];
+			float cosX = (float) Math.cos(halfX);
+			float cosY = (float) Math.cos(halfY);
+			float cosZ = (float) Math.cos(halfZ);
+			float sinX = (float) Math.sin(halfX);
+			float sinY = (float) Math.sin(halfY);
+			float sinZ = (float) Math.sin(halfZ);
+
+			Q[q] = cosX*cosY*cosZ - sinX*sinY*sinZ;
+			Q[q + 1] = cosY*cosZ*sinX - cosX*sinY*sinZ;
+			Q[q + 2] = cosX*cosZ*sinY + cosY*sinX*sinZ;
+			Q[q + 3] = cosZ*sinX*sinY + cosX*cosY*sinZ;
+		}
+	}
+	public static void setFromEulerZYX(
+		float[] Q, int qOffset, int qStride,
+		float[] E, int eOffset, int eStride,
+		int count
+	) {
+		for (int i = 0, q = qOffset, e = eOffset; i < count; i++, q += qStride, e += eStride) {
+			float halfZ = 0.5f*E[e], halfY = 0.5f*E[e + 1], halfX = 0.5f*E[e + 2];
+			float cosX = (float) Math.cos(halfX);
+			float cosY = (float) Math.cos(halfY);
+			float cosZ = (float) Math.cos(halfZ);
+			float sinX = (float) Math.sin(halfX);
+			float sinY = (float) Math.sin(halfY);
+			float sinZ = (float) Math.sin(halfZ);
+
+			Q[q] = cosX*cosY*cosZ + sinX*sinY*sinZ;
+			Q[q + 1] = cosY*cosZ*sinX - cosX*sinY*sinZ;
+			Q[q + 2] = cosX*cosZ*sinY + cosY*sinX*sinZ;
+			Q[q + 3] = cosX*cosY*sinZ - cosZ*sinX*sinY;
+		}
+	}
+	public static void setFromArray(
+		float[] Q, int qOffset, int qStride,
+		QuaternionArray A, int aOffset,
+		int count
+	) {
+		for (int i = 0, q = qOffset, a = aOffset; i < count; i++, q += qStride, a++) {
+			Q[q] = A.w[a];
+			Q[q + 1] = A.x[a];
+			Q[q + 2] = A.y[a];
+			Q[q + 3] = A.z[a];
+		}
+	}
+
+// conversion to
+	public static void toRotationMatrix(
+		float[] M, int mOffset, int mStride,
+		float[] Q, int qOffset, int qStride,
+		int count
+	) {
+		for (int i = 0, m = mOffset, q = qOffset; i < count; i++, m += mStride, q += qStride) {
+			float w = Q[q], x = Q[q + 1], y = Q[q + 2], z = Q[q + 3];
+			float inv = 1f/(w*w + x*x + y*y + z*z);
+
+			M[m] = inv*(w*w + x*x - y*y - z*z);
+			M[m + 1] = inv*2f*(x*y - w*z);
+			M[m + 2] = inv*2f*(w*y + x*z);
+			M[m + 3] = inv*2f*(x*y + w*z);
+			M[m + 4] = inv*(w*w - x*x + y*y - z*z);
+			M[m + 5] = inv*2f*(y*z - w*x);
+			M[m + 6] = inv*2f*(x*z - w*y);
+			M[m + 7] = inv*2f*(w*x + y*z);
+			M[m + 8] = inv*(w*w - x*x - y*y + z*z);
+		}
+	}
+	public static void toRotationVector(
+		float[] V, int vOffset, int vStride,
+		float[] Q, int qOffset, int qStride,
+		int count
+	) {
+		for (int i = 0, v = vOffset, q = qOffset; i < count; i++, v += vStride, q += qStride) {
+			float w = Q[q], x = Q[q + 1], y = Q[q + 2], z = Q[q + 3];
+			float im = (float) Math.sqrt(x*x + y*y + z*z);
+			float mul = im == 0f ? 0f : 2f*(float) Math.atan2(im, w)/im;
+			V[v] = mul*x;
+			V[v + 1] = mul*y;
+			V[v + 2] = mul*z;
+		}
+	}
+	public static void toEulerXYZ(
+		float[] E, int eOffset, int eStride,
+		float[] Q, int qOffset, int qStride,
+		int count
+	) {
+		for (int i = 0, e = eOffset, q = qOffset; i < count; i++, e += eStride, q += qStride) {
+			float w = Q[q], x = Q[q + 1], y = Q[q + 2], z = Q[q + 3];
+			float zz = w*w - x*x - y*y + z*z;
+			float zy = 2f*(y*z - w*x);
+			float kc = (float) Math.sqrt(zy*zy + zz*zz);
+			float zx = 2f*(w*y + x*z);
+			float xx = w*w + x*x - y*y - z*z;
+			float yx = 2f*(x*y - w*z);
+
+			float X, Y, Z;
+			if ((zx < 0 ? -zx : zx) > Quaternion.EULER_TOL*kc) {
+				X = 2f*(float) Math.atan2(x, w);
+				Y = (float) Math.atan2( zx, kc);
+				Z = 0f;
+			} else {
+				X = (float) Math.atan2(-zy, zz);
+				Y = (float) Math.atan2( zx, kc);
+				Z = (float) Math.atan2(-yx, xx);
+			}
+
+			E[e] = X;
+			E[e + 1] = Y;
+			E[e + 2] = Z;
+		}
+	}
+	public static void toEulerXZY(
+		float[] E, int eOffset, int eStride,
+		float[] Q, int qOffset, int qStride,
+		int count
+	) {
+		for (int i = 0, e = eOffset, q = qOffset; i < count; i++, e += eStride, q += qStride) {
+			float w = Q[q], x = Q[q + 1], y = Q[q + 2], z = Q[q + 3];
+			float yy = w*w - x*x + y*y - z*z;
+			float yz = 2f*(w*x + y*z);
+			float kc = (float) Math.sqrt(yz*yz + yy*yy);
+			float yx = 2f*(x*y - w*z);
+			float xx = w*w + x*x - y*y - z*z;
+			float zx = 2f*(w*y + x*z);
+
+			float X, Z, Y;
+			if ((yx < 0 ? -yx : yx) > Quaternion.EULER_TOL*kc) {
+				X = 2f*(float) Math.atan2(x, w);
+				Z = (float) Math.atan2(-yx, kc);
+				Y = 0f;
+			} else {
+				X = (float) Math.atan2( yz, yy);
+				Z = (float) Math.atan2(-yx, kc);
+				Y = (float) Math.atan2( zx, xx);
+			}
+
+			E[e] = X;
+			E[e + 1] = Z;
+			E[e + 2] = Y;
+		}
+	}
+	public static void toEulerYXZ(
+		float[] E, int eOffset, int eStride,
+		float[] Q, int qOffset, int qStride,
+		int count
+	) {
+		for (int i = 0, e = eOffset, q = qOffset; i < count; i++, e += eStride, q += qStride) {
+			float w = Q[q], x = Q[q + 1], y = Q[q + 2], z = Q[q + 3];
+			float zz = w*w - x*x - y*y + z*z;
+			float zx = 2f*(w*y + x*z);
+			float kc = (float) Math.sqrt(zx*zx + zz*zz);
+			float zy = 2f*(y*z - w*x);
+			float yy = w*w - x*x + y*y - z*z;
+			float xy = 2f*(x*y + w*z);
+
+			float Y, X, Z;
+			if ((zy < 0 ? -zy : zy) > Quaternion.EULER_TOL*kc) {
+				Y = 2f*(float) Math.atan2(y, w);
+				X = (float) Math.atan2(-zy, kc);
+				Z = 0f;
+			} else {
+				Y = (float) Math.atan2( zx, zz);
+				X = (float) Math.atan2(-zy, kc);
+				Z = (float) Math.atan2( xy, yy);
+			}
+
+			E[e] = Y;
+			E[e + 1] = X;
+			E[e + 2] = Z;
+		}
+	}
+	public static void toEulerYZX(
+		float[] E, int eOffset, int eStride,
+		float[] Q, int qOffset, int qStride,
+		int count
+	) {
+		for (int i = 0, e = eOffset, q = qOffset; i < count; i++, e += eStride, q += qStride) {
+			float w = Q[q], x = Q[q + 1], y = Q[q + 2], z = Q[q + 3];
+			float xx = w*w + x*x - y*y - z*z;
+			float xz = 2f*(x*z - w*y);
+			float kc = (float) Math.sqrt(xz*xz + xx*xx);
+			float xy = 2f*(x*y + w*z);
+			float yy = w*w - x*x + y*y - z*z;
+			float zy = 2f*(y*z - w*x);
+
+			float Y, Z, X;
+			if ((xy < 0 ? -xy : xy) > Quaternion.EULER_TOL*kc) {
+				Y = 2f*(float) Math.atan2(y, w);
+				Z = (float) Math.atan2( xy, kc);
+				X = 0f;
+			} else {
+				Y = (float) Math.atan2(-xz, xx);
+				Z = (float) Math.atan2( xy, kc);
+				X = (float) Math.atan2(-zy, yy);
+			}
+
+			E[e] = Y;
+			E[e + 1] = Z;
+			E[e + 2] = X;
+		}
+	}
+	public static void toEulerZXY(
+		float[] E, int eOffset, int eStride,
+		float[] Q, int qOffset, int qStride,
+		int count
+	) {
+		for (int i = 0, e = eOffset, q = qOffset; i < count; i++, e += eStride, q += qStride) {
+			float w = Q[q], x = Q[q + 1], y = Q[q + 2], z = Q[q + 3];
+			float yy = w*w - x*x + y*y - z*z;
+			float yx = 2f*(x*y - w*z);
+			float kc = (float) Math.sqrt(yx*yx + yy*yy);
+			float yz = 2f*(w*x + y*z);
+			float zz = w*w - x*x - y*y + z*z;
+			float xz = 2f*(x*z - w*y);
+
+			float Z, X, Y;
+			if ((yz < 0 ? -yz : yz) > Quaternion.EULER_TOL*kc) {
+				Z = 2f*(float) Math.atan2(z, w);
+				X = (float) Math.atan2( yz, kc);
+				Y = 0f;
+			} else {
+				Z = (float) Math.atan2(-yx, yy);
+				X = (float) Math.atan2( yz, kc);
+				Y = (float) Math.atan2(-xz, zz);
+			}
+
+			E[e] = Z;
+			E[e + 1] = X;
+			E[e + 2] = Y;
+		}
+	}
+	public static void toEulerZYX(
+		float[] E, int eOffset, int eStride,
+		float[] Q, int qOffset, int qStride,
+		int count
+	) {
+		for (int i = 0, e = eOffset, q = qOffset; i < count; i++, e += eStride, q += qStride) {
+			float w = Q[q], x = Q[q + 1], y = Q[q + 2], z = Q[q + 3];
+			float xx = w*w + x*x - y*y - z*z;
+			float xy = 2f*(x*y + w*z);
+			float kc = (float) Math.sqrt(xy*xy + xx*xx);
+			float xz = 2f*(x*z - w*y);
+			float zz = w*w - x*x - y*y + z*z;
+			float yz = 2f*(w*x + y*z);
+
+			float Z, Y, X;
+			if ((xz < 0 ? -xz : xz) > Quaternion.EULER_TOL*kc) {
+				Z = 2f*(float) Math.atan2(z, w);
+				Y = (float) Math.atan2(-xz, kc);
+				X = 0f;
+			} else {
+				Z = (float) Math.atan2( xy, xx);
+				Y = (float) Math.atan2(-xz, kc);
+				X = (float) Math.atan2( yz, zz);
+			}
+
+			E[e] = Z;
+			E[e + 1] = Y;
+			E[e + 2] = X;
+		}
+	}
+	public static void toArray(
+		QuaternionArray A, int aOffset,
+		float[] Q, int qOffset, int qStride,
+		int count
+	) {
+		for (int i = 0, q = qOffset, a = aOffset; i < count; i++, q += qStride, a++) {
+			A.w[a] = Q[q];
+			A.x[a] = Q[q + 1];
+			A.y[a] = Q[q + 2];
+			A.z[a] = Q[q + 3];
+		}
+	}
+}
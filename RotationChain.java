@@ -0,0 +1,103 @@
+// A sequence of rotations applied one after another, composed once and cached
+// Rotating by rotations[0], then rotations[1], ... is the same as rotating by
+//	rotations[n - 1]*...*rotations[1]*rotations[0]
+// The quaternions are referenced, not copied, so they can be changed in place
+// The composite is only rebuilt when one of them has actually changed
+
+public final class RotationChain {
+	private final Quaternion[] rotations;
+	private final float[] seen; // the components the cache was built from
+	private final Quaternion composite = new Quaternion();
+	private final Matrix3f matrix = new Matrix3f();
+	private boolean valid = false;
+
+	public RotationChain(Quaternion... rotations) {
+		this.rotations = rotations.clone();
+		this.seen = new float[4*rotations.length];
+	}
+
+	// forces the next use to recompose, even if no component has changed
+	public void invalidate() {
+		valid = false;
+	}
+
+	// returns whether the composite had to be rebuilt
+	public boolean update() {
+		boolean changed = !valid;
+		for (int i = 0, j = 0; i < rotations.length; i++, j += 4) {
+			Quaternion Q = rotations[i];
+			if (Q.w != seen[j] || Q.x != seen[j + 1] || Q.y != seen[j + 2] || Q.z != seen[j + 3]) {
+				seen[j] = Q.w;
+				seen[j + 1] = Q.x;
+				seen[j + 2] = Q.y;
+				seen[j + 3] = Q.z;
+				changed = true;
+			}
+		}
+		if (!changed) {
+			return false;
+		}
+
+		// a single unitization for the whole chain instead of one inverse per sandwich
+		composite.loadIdentity();
+		for (int i = 0; i < rotations.length; i++) {
+			composite.mul(rotations[i], composite);
+		}
+		composite.unitThis();
+		composite.toRotationMatrix(matrix);
+		valid = true;
+
+		return true;
+	}
+
+// conversion to
+	public Quaternion toQuaternion(Quaternion output) {
+		update();
+		return output.set(composite.w, composite.x, composite.y, composite.z);
+	}
+	public Matrix3f toRotationMatrix(Matrix3f output) {
+		update();
+		Matrix3f m = matrix;
+		output.m00 = m.m00; output.m01 = m.m01; output.m02 = m.m02;
+		output.m10 = m.m10; output.m11 = m.m11; output.m12 = m.m12;
+		output.m20 = m.m20; output.m21 = m.m21; output.m22 = m.m22;
+
+		return output;
+	}
+
+//Quaternion Vector
+	public Vector3f sandwich(float vx, float vy, float vz, Vector3f output) {
+		update();
+		Matrix3f m = matrix;
+		output.x = m.m00*vx + m.m01*vy + m.m02*vz;
+		output.y = m.m10*vx + m.m11*vy + m.m12*vz;
+		output.z = m.m20*vx + m.m21*vy + m.m22*vz;
+
+		return output;
+	}
+	public Vector3fArray sandwich(Vector3fArray vectors, Vector3fArray output, int offset, int count) {
+		update();
+		float m00 = matrix.m00, m01 = matrix.m01, m02 = matrix.m02;
+		float m10 = matrix.m10, m11 = matrix.m11, m12 = matrix.m12;
+		float m20 = matrix.m20, m21 = matrix.m21, m22 = matrix.m22;
+		float[] ix = vectors.x, iy = vectors.y, iz = vectors.z;
+		float[] ox = output.x, oy = output.y, oz = output.z;
+
+		for (int i = offset; i < offset + count; i++) {
+			float vx = ix[i], vy = iy[i], vz = iz[i];
+			ox[i] = m00*vx + m01*vy + m02*vz;
+			oy[i] = m10*vx + m11*vy + m12*vz;
+			oz[i] = m20*vx + m21*vy + m22*vz;
+		}
+
+		return output;
+	}
+
+	//	alt arguments
+	public Vector3f sandwich(Vector3f vector, Vector3f output) {return this.sandwich(vector.x, vector.y, vector.z, output);}
+	public Vector3fArray sandwich(Vector3fArray vectors, Vector3fArray output) {return this.sandwich(vectors, output, 0, vectors.length);}
+
+	//	immutable conversion shorthand
+	public Quaternion toQuaternion() {return this.toQuaternion(new Quaternion());}
+	public Matrix3f toRotationMatrix() {return this.toRotationMatrix(new Matrix3f());}
+}
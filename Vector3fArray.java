@@ -0,0 +1,45 @@
+// Structure of arrays storage for many vectors, the companion of QuaternionArray
+
+public final class Vector3fArray {
+	public final float[] x, y, z;
+	public final int length;
+
+	public Vector3fArray(int length) {
+		this.x = new float[length];
+		this.y = new float[length];
+		this.z = new float[length];
+		this.length = length;
+	}
+
+	public Vector3fArray(float[] x, float[] y, float[] z) {
+		if (y.length != x.length || z.length != x.length) {
+			throw new IllegalArgumentException("component arrays differ in length");
+		}
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		this.length = x.length;
+	}
+
+	public Vector3f get(int i, Vector3f output) {
+		output.x = x[i];
+		output.y = y[i];
+		output.z = z[i];
+
+		return output;
+	}
+	public Vector3fArray set(int i, Vector3f vector) {
+		x[i] = vector.x;
+		y[i] = vector.y;
+		z[i] = vector.z;
+
+		return this;
+	}
+	public Vector3fArray set(int i, float vx, float vy, float vz) {
+		x[i] = vx;
+		y[i] = vy;
+		z[i] = vz;
+
+		return this;
+	}
+}